@@ -6,6 +6,7 @@ import fns.datura.punishment.Cager;
 import fns.datura.punishment.Halter;
 import fns.datura.punishment.Locker;
 import fns.datura.sql.MySQL;
+import fns.datura.user.UserListener;
 import fns.patchwork.base.Registration;
 import fns.patchwork.service.SubscriptionProvider;
 import org.bukkit.Bukkit;
@@ -40,6 +41,8 @@ public class Datura extends JavaPlugin
               .registerEvents(halter, this);
         Bukkit.getPluginManager()
               .registerEvents(commandSpy, this);
+        Bukkit.getPluginManager()
+              .registerEvents(new UserListener(), this);
 
         Registration.getModuleRegistry()
                 .addModule(this);
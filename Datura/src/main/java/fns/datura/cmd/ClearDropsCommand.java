@@ -9,6 +9,7 @@ import fns.patchwork.command.annotation.Base;
 import fns.patchwork.command.annotation.Completion;
 import fns.patchwork.command.annotation.Info;
 import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.RateLimit;
 import fns.patchwork.command.annotation.Subcommand;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
@@ -21,6 +22,7 @@ import org.jetbrains.annotations.NotNull;
 @Info(name = "cleardrops", description = "Clears all item drops in the world" + ".", usage = "/<command>", aliases =
     {"cd", "clearitems", "ci", "wipeitems", "wi", "removedrops", "rd"})
 @Permissive(perm = "datura.cleardrops")
+@RateLimit(burst = 2, perSecond = 0.2)
 @Completion(index = 0, args = {"%world%"})
 public class ClearDropsCommand extends Commander
 {
@@ -5,6 +5,7 @@ import fns.patchwork.command.annotation.Base;
 import fns.patchwork.command.annotation.Completion;
 import fns.patchwork.command.annotation.Info;
 import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.RateLimit;
 import fns.patchwork.command.annotation.Subcommand;
 import fns.patchwork.utils.Tagged;
 import org.bukkit.World;
@@ -17,6 +18,7 @@ import org.jetbrains.annotations.NotNull;
 @Info(name = "clearentities", description = "Clears all entities in the world.", usage = "/<command> [world]",
     aliases = {"ew", "ce", "entitywipe", "entityclear", "ec"})
 @Permissive(perm = "datura.clearentities")
+@RateLimit(burst = 2, perSecond = 0.2)
 @Completion(index = 0, args = {"%world%"})
 public class ClearEntitiesCommand extends Commander
 {
@@ -57,32 +57,29 @@ public class HaltCommand extends Commander
         }
     }
 
-    @Subcommand(permission = "datura.halt.all", args = {String.class, String.class})
-    public void haltAll(final CommandSender sender, final String all, final String toggle)
+    @Subcommand(permission = "datura.halt.all", path = {"all"}, args = {String.class})
+    public void haltAll(final CommandSender sender, final String toggle)
     {
-        if (all.equalsIgnoreCase("all"))
+        if (toggle.equalsIgnoreCase("on"))
         {
-            if (toggle.equalsIgnoreCase("on"))
-            {
-                Bukkit.getServer()
-                      .getOnlinePlayers()
-                      .forEach(player -> plugin.getHalter()
-                                               .halt(player.getUniqueId()));
+            Bukkit.getServer()
+                  .getOnlinePlayers()
+                  .forEach(player -> plugin.getHalter()
+                                           .halt(player.getUniqueId()));
 
-                final Component message = sender.name()
-                                                .append(Component.text(": Freezing all players"))
-                                                .color(NamedTextColor.AQUA);
+            final Component message = sender.name()
+                                            .append(Component.text(": Freezing all players"))
+                                            .color(NamedTextColor.AQUA);
 
-                Bukkit.broadcast(message);
-                sender.sendPlainMessage("All players have been halted.");
-            } else if (toggle.equalsIgnoreCase("off"))
-            {
-                plugin.getHalter()
-                      .clear();
+            Bukkit.broadcast(message);
+            sender.sendPlainMessage("All players have been halted.");
+        } else if (toggle.equalsIgnoreCase("off"))
+        {
+            plugin.getHalter()
+                  .clear();
 
-                Bukkit.broadcast(Component.text("All players have been unfrozen!", NamedTextColor.AQUA));
-                sender.sendPlainMessage("All players have been unhalted.");
-            }
+            Bukkit.broadcast(Component.text("All players have been unfrozen!", NamedTextColor.AQUA));
+            sender.sendPlainMessage("All players have been unhalted.");
         }
     }
 }
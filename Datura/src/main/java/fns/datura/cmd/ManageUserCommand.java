@@ -6,6 +6,7 @@ import fns.patchwork.command.Commander;
 import fns.patchwork.command.annotation.Completion;
 import fns.patchwork.command.annotation.Info;
 import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.RateLimit;
 import fns.patchwork.command.annotation.Subcommand;
 import fns.patchwork.security.Node;
 import fns.patchwork.security.NodeType;
@@ -20,6 +21,7 @@ import org.jetbrains.annotations.NotNull;
 @Info(name = "manageuser", description = "Manage a user's permissions", usage = "/manageuser <username> <info | (add "
     + "| remove <permission>)>", aliases = {"mu", "userdata", "ud", "usermanager", "um"})
 @Permissive(perm = "datura.manageuser")
+@RateLimit(burst = 3, perSecond = 0.5)
 @Completion(index = 0, args = {"%player%"})
 @Completion(index = 1, args = {"info", "add", "remove"})
 @Completion(index = 2, args = {"<permission>"})
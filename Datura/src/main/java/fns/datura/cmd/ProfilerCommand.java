@@ -0,0 +1,83 @@
+package fns.datura.cmd;
+
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.base.Registration;
+import fns.patchwork.base.Shortcuts;
+import fns.patchwork.command.Commander;
+import fns.patchwork.command.annotation.Base;
+import fns.patchwork.command.annotation.Completion;
+import fns.patchwork.command.annotation.Info;
+import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.Subcommand;
+import fns.patchwork.service.ProfileSnapshot;
+import java.util.List;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+@Info(name = "profiler", description = "Shows the tick cost of each service and task.", usage = "/<command> [reset]",
+    aliases = {"tickprofiler", "tp"})
+@Permissive(perm = "datura.profiler")
+@Completion(index = 0, args = {"reset"})
+public class ProfilerCommand extends Commander
+{
+    /**
+     * The number of profiles shown by the base command.
+     */
+    private static final int TOP = 10;
+
+    /**
+     * Initializes this command object. The provided {@link JavaPlugin} should be the plugin which contains the
+     * command.
+     * <p>
+     * This constructor will automatically register all subcommands and completions for this command. It will also
+     * automatically infer all required information from the provided {@link Info} and {@link Permissive} annotations.
+     *
+     * @param plugin The plugin which contains this command.
+     */
+    public ProfilerCommand(final @NotNull JavaPlugin plugin)
+    {
+        super(plugin);
+    }
+
+    @Base
+    public void profiler(final CommandSender sender)
+    {
+        final List<ProfileSnapshot> snapshots = Registration.getProfilerRegistry()
+                                                            .getSnapshots();
+
+        if (snapshots.isEmpty())
+        {
+            sender.sendPlainMessage("No services or tasks have been profiled yet.");
+            return;
+        }
+
+        sender.sendPlainMessage("Top " + Math.min(TOP, snapshots.size()) + " of " + snapshots.size()
+                                        + " by total time (count, total ms, p50/p99/max us, overruns, rejections):");
+
+        for (final ProfileSnapshot snapshot : snapshots.subList(0, Math.min(TOP, snapshots.size())))
+        {
+            sender.sendPlainMessage(String.format("%s %s: %d, %d ms, %d/%d/%d us, %d, %d",
+                                                  snapshot.kind(),
+                                                  snapshot.name(),
+                                                  snapshot.count(),
+                                                  snapshot.totalNanos() / 1_000_000L,
+                                                  snapshot.p50Nanos() / 1_000L,
+                                                  snapshot.p99Nanos() / 1_000L,
+                                                  snapshot.maxNanos() / 1_000L,
+                                                  snapshot.overruns(),
+                                                  snapshot.rejections()));
+        }
+    }
+
+    @Subcommand(permission = "datura.profiler.reset", path = {"reset"})
+    public void reset(final CommandSender sender)
+    {
+        Registration.getProfilerRegistry()
+                    .reset();
+        Shortcuts.provideModule(Patchwork.class)
+                 .getWatchdog()
+                 .reset();
+        sender.sendPlainMessage("Profiler data has been reset.");
+    }
+}
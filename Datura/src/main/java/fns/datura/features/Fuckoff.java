@@ -1,6 +1,7 @@
 package fns.datura.features;
 
-import fns.patchwork.service.Service;
+import fns.patchwork.service.ShardedService;
+import fns.patchwork.service.TickPriority;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -8,40 +9,46 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-public class Fuckoff extends Service
+public class Fuckoff extends ShardedService<UUID>
 {
+    /**
+     * Every player's surroundings are cleared at least this often, in ticks.
+     */
+    private static final int MAX_SHARDS = 2;
+
     private final Map<UUID, Integer> players = new ConcurrentHashMap<>();
 
     public Fuckoff()
     {
-        super("fuckoff-service");
+        super("fuckoff-service", TickPriority.HIGH, MAX_SHARDS);
     }
 
     public void add(final Player player, final int radius)
     {
         players.put(player.getUniqueId(), radius);
+        track(player.getUniqueId());
     }
 
     public void remove(final Player player)
     {
+        untrack(player.getUniqueId());
         players.remove(player.getUniqueId());
     }
 
     @Override
-    public void tick()
+    protected void tick(final UUID uuid)
     {
-        for (final Map.Entry<UUID, Integer> entry : players.entrySet())
-        {
-            final var player = Bukkit.getPlayer(entry.getKey());
-
-            if (player == null)
-            {
-                players.remove(entry.getKey());
-                continue;
-            }
+        final var player = Bukkit.getPlayer(uuid);
+        final Integer radius = players.get(uuid);
 
-            pushPlayers(player, entry.getValue());
+        if (player == null || radius == null)
+        {
+            untrack(uuid);
+            players.remove(uuid);
+            return;
         }
+
+        pushPlayers(player, radius);
     }
 
     private void pushPlayers(@NotNull final Player player, final int radius)
@@ -18,6 +18,7 @@ import org.jetbrains.annotations.Nullable;
 
 public class FreedomGroup implements Group
 {
+    private final UUID uniqueId;
     private final Component name;
     private final Component prefix;
     private final Component abbreviation;
@@ -34,6 +35,8 @@ public class FreedomGroup implements Group
                         final boolean isDefault,
                         final boolean isHidden)
     {
+        this.uniqueId = UUID.nameUUIDFromBytes(name.toString()
+                                                   .getBytes());
         this.name = name;
         this.prefix = prefix;
         this.abbreviation = abbreviation;
@@ -47,8 +50,7 @@ public class FreedomGroup implements Group
     @Override
     public UUID getUniqueId()
     {
-        return UUID.nameUUIDFromBytes(getName().toString()
-                                               .getBytes());
+        return uniqueId;
     }
 
     @Override
@@ -108,51 +110,44 @@ public class FreedomGroup implements Group
     @Override
     public boolean isPermissionSet(@NotNull final String name)
     {
-        final Node node = permissions().stream()
-                                       .filter(n -> n.key()
-                                                     .equalsIgnoreCase(name))
-                                       .findFirst()
-                                       .orElse(null);
-
-        return node != null;
+        return hasPermission(name);
     }
 
     @Override
     public boolean isPermissionSet(@NotNull final Permission perm)
     {
-        final Node node = permissions()
-                .stream()
-                .filter(n -> n.bukkit()
-                              .equals(perm))
-                .findFirst()
-                .orElse(null);
-
-        return node != null;
+        return hasPermission(perm);
     }
 
     @Override
     public boolean hasPermission(@NotNull final String name)
     {
-        final Node node = permissions().stream()
-                                       .filter(n -> n.key()
-                                                     .equalsIgnoreCase(name))
-                                       .findFirst()
-                                       .orElse(null);
+        for (final Node node : permissions())
+        {
+            if (node.key()
+                    .equalsIgnoreCase(name))
+            {
+                return true;
+            }
+        }
 
-        return node != null;
+        return false;
     }
 
     @Override
     public boolean hasPermission(@NotNull final Permission perm)
     {
-        final Node node = permissions()
-                .stream()
-                .filter(n -> n.bukkit()
-                              .equals(perm))
-                .findFirst()
-                .orElse(null);
+        for (final Node node : permissions())
+        {
+            // Nodes share pooled Bukkit permissions, so an identity match is the common case.
+            if (node.bukkit() == perm || node.key()
+                                              .equalsIgnoreCase(perm.getName()))
+            {
+                return true;
+            }
+        }
 
-        return node != null;
+        return false;
     }
 
     /**
@@ -221,13 +216,7 @@ public class FreedomGroup implements Group
     @Override
     public boolean isOp()
     {
-        final Node node = permissions()
-                .stream()
-                .filter(n -> n.equals(DefaultNodes.OP))
-                .findFirst()
-                .orElse(null);
-
-        return node != null;
+        return permissions().contains(DefaultNodes.OP);
     }
 
     @Override
@@ -95,7 +95,9 @@ public class FreedomUser implements User
         final boolean value = !node.isTemporary() || node.isExpired();
         final PermissionAttachment attachment = addAttachment(Shortcuts.provideModule(Patchwork.class), node.key(), value);
         bukkitAttachments.put(node, attachment);
-        return permissions().add(node);
+        final boolean added = permissions().add(node);
+        refreshRank();
+        return added;
     }
 
     @Override
@@ -103,7 +105,20 @@ public class FreedomUser implements User
     {
         removeAttachment(bukkitAttachments.get(node));
         bukkitAttachments.remove(node);
-        return permissions.remove(node);
+        final boolean removed = permissions.remove(node);
+        refreshRank();
+        return removed;
+    }
+
+    private void refreshRank()
+    {
+        final Player player = Bukkit.getPlayer(uuid);
+        if (player != null)
+        {
+            Shortcuts.provideModule(Patchwork.class)
+                     .getRankResolver()
+                     .refresh(player);
+        }
     }
 
     @Override
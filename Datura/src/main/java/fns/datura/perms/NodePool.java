@@ -0,0 +1,70 @@
+package fns.datura.perms;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import fns.patchwork.security.Node;
+import fns.patchwork.security.NodeType;
+import java.util.concurrent.ExecutionException;
+import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionDefault;
+
+/**
+ * A flyweight pool for {@link PermissionNode}s and their Bukkit {@link Permission} counterparts.
+ * <br>
+ * Nodes are interned by their key, type, expiry and wildcard flag, so every user or group holding the same node shares
+ * a single instance. Bukkit permissions are shared by every node with the same key. Both pools only hold their values
+ * weakly, so nodes which are no longer held by anyone can be garbage collected.
+ */
+final class NodePool
+{
+    /**
+     * The pool of interned nodes.
+     */
+    private static final Interner<PermissionNode> NODES = Interners.newWeakInterner();
+    /**
+     * The pool of Bukkit permissions, keyed by permission name.
+     */
+    private static final Cache<String, Permission> PERMISSIONS = CacheBuilder.newBuilder()
+                                                                             .weakValues()
+                                                                             .build();
+
+    private NodePool()
+    {
+        throw new AssertionError();
+    }
+
+    /**
+     * Gets the canonical node for the provided values, creating it if it is not already pooled.
+     *
+     * @param key      The permission key.
+     * @param expiry   The expiry of the node, or -1 if the node does not expire.
+     * @param type     The type of the node.
+     * @param wildcard Whether the node is a wildcard.
+     * @return The pooled node.
+     */
+    static Node intern(final String key, final long expiry, final NodeType type, final boolean wildcard)
+    {
+        return NODES.intern(new PermissionNode(key, expiry, type, wildcard, permission(key)));
+    }
+
+    /**
+     * Gets the shared Bukkit permission for the provided key, creating it if it is not already pooled.
+     *
+     * @param key The permission key.
+     * @return The pooled permission.
+     */
+    static Permission permission(final String key)
+    {
+        try
+        {
+            return PERMISSIONS.get(key, () -> new Permission(key, PermissionDefault.FALSE));
+        }
+        catch (ExecutionException ex)
+        {
+            // The loader cannot throw a checked exception, so this will never happen.
+            throw new IllegalStateException(ex);
+        }
+    }
+}
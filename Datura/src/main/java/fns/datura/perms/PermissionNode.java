@@ -2,16 +2,61 @@ package fns.datura.perms;
 
 import fns.patchwork.security.Node;
 import fns.patchwork.security.NodeType;
+import java.util.Objects;
 import org.bukkit.permissions.Permission;
-import org.bukkit.permissions.PermissionDefault;
 
-record PermissionNode(String key, long expiry, NodeType type, boolean wildcard) implements Node
+/**
+ * The default {@link Node} implementation. Instances should only be obtained through {@link PermissionNodeBuilder},
+ * which interns them in the {@link NodePool}.
+ */
+final class PermissionNode implements Node
 {
+    private final String key;
+    private final long expiry;
+    private final NodeType type;
+    private final boolean wildcard;
+    private final Permission bukkit;
+    private final int hash;
+
+    PermissionNode(final String key, final long expiry, final NodeType type, final boolean wildcard,
+                   final Permission bukkit)
+    {
+        this.key = key;
+        this.expiry = expiry;
+        this.type = type;
+        this.wildcard = wildcard;
+        this.bukkit = bukkit;
+        this.hash = Objects.hash(key, expiry, type, wildcard);
+    }
+
+    @Override
+    public String key()
+    {
+        return key;
+    }
+
+    @Override
+    public long expiry()
+    {
+        return expiry;
+    }
+
+    @Override
+    public NodeType type()
+    {
+        return type;
+    }
+
+    @Override
+    public boolean wildcard()
+    {
+        return wildcard;
+    }
 
     @Override
     public Permission bukkit()
     {
-        return new Permission(key(), PermissionDefault.FALSE);
+        return bukkit;
     }
 
     @Override
@@ -36,4 +81,31 @@ record PermissionNode(String key, long expiry, NodeType type, boolean wildcard)
     {
         return expiry() > -1;
     }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+
+        return o instanceof PermissionNode node
+                && expiry == node.expiry
+                && wildcard == node.wildcard
+                && type == node.type
+                && key.equals(node.key);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PermissionNode[key=" + key + ", expiry=" + expiry + ", type=" + type + ", wildcard=" + wildcard + "]";
+    }
 }
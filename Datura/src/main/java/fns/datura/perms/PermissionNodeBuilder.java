@@ -42,6 +42,6 @@ public class PermissionNodeBuilder implements NodeBuilder
     @Override
     public Node build()
     {
-        return new PermissionNode(key, expiry, type, wildcard);
+        return NodePool.intern(key, expiry, type, wildcard);
     }
 }
@@ -2,14 +2,13 @@ package fns.datura.punishment;
 
 import fns.datura.Datura;
 import fns.patchwork.base.Patchwork;
-import fns.patchwork.service.Service;
+import fns.patchwork.service.ShardedService;
+import fns.patchwork.service.TickPriority;
 import fns.patchwork.utils.ShapeUtils;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.function.DoubleUnaryOperator;
 import org.bukkit.Bukkit;
@@ -23,15 +22,13 @@ import org.bukkit.event.player.PlayerQuitEvent;
 
 import javax.sound.midi.Patch;
 
-public class Cager extends Service
+public class Cager extends ShardedService<UUID>
 {
-    private final Set<UUID> cagedPlayers;
     private final Map<UUID, Location> cageLocations;
 
     public Cager(final Datura datura)
     {
-        super("cager-service");
-        this.cagedPlayers = new HashSet<>();
+        super("cager-service", TickPriority.CRITICAL, 1);
         this.cageLocations = new HashMap<>();
         Bukkit.getPluginManager()
               .registerEvents(new CageListener(), datura);
@@ -48,8 +45,8 @@ public class Cager extends Service
         final Player player = Bukkit.getPlayer(uuid);
         if (player == null) return;
 
-        cagedPlayers.add(uuid);
         cageLocations.put(uuid, createCage(player.getLocation(), Material.GLASS));
+        track(uuid);
     }
 
     /**
@@ -89,18 +86,18 @@ public class Cager extends Service
         final Player player = Bukkit.getPlayer(uuid);
         if (player == null) return;
 
-        cagedPlayers.add(uuid);
         cageLocations.put(uuid, createCage(player.getLocation(), material));
+        track(uuid);
     }
 
     /**
-     * This method will uncage the player by removing them from the {@link #cagedPlayers} set.
+     * This method will uncage the player by untracking them from this service.
      *
      * @param uuid The UUID of the player to uncage.
      */
     public void uncagePlayer(final UUID uuid)
     {
-        cagedPlayers.remove(uuid);
+        untrack(uuid);
         final Location location = cageLocations.get(uuid);
 
         createCage(location, Material.AIR); // Remove the cage (set all blocks to air).
@@ -109,37 +106,35 @@ public class Cager extends Service
     }
 
     /**
-     * This method will check to make sure each caged player remains within their cage. We use
+     * This method will check to make sure a caged player remains within their cage. We use
      * <p>
      * <code>{@link Location#distanceSquared(Location)} * {@link Math#pow(double, double)}</code>
      * <p>
      * to check if the player is outside the cage.
      */
     @Override
-    public void tick()
+    protected void tick(final UUID uuid)
     {
-        for (final UUID uuid : cagedPlayers)
-        {
-            final Player player = Bukkit.getPlayer(uuid);
-            if (player == null) continue;
+        final Player player = Bukkit.getPlayer(uuid);
+        if (player == null) return;
 
-            final Location cageLocation = getCageLocation(player);
+        final Location cageLocation = getCageLocation(player);
+        if (cageLocation == null) return;
 
-            final boolean inside;
-            if (!player.getWorld()
-                       .equals(cageLocation.getWorld()))
-            {
-                inside = false;
-            } else
-            {
-                inside = player.getLocation()
-                               .distanceSquared(cageLocation) > (Math.pow(2.5, 2.0));
-            }
+        final boolean inside;
+        if (!player.getWorld()
+                   .equals(cageLocation.getWorld()))
+        {
+            inside = false;
+        } else
+        {
+            inside = player.getLocation()
+                           .distanceSquared(cageLocation) > (Math.pow(2.5, 2.0));
+        }
 
-            if (!inside)
-            {
-                player.teleport(cageLocation);
-            }
+        if (!inside)
+        {
+            player.teleport(cageLocation);
         }
     }
 
@@ -160,8 +155,8 @@ public class Cager extends Service
         @EventHandler
         public void blockBreakEvent(final BlockBreakEvent event)
         {
-            if (cagedPlayers.contains(event.getPlayer()
-                                           .getUniqueId()))
+            if (isTracked(event.getPlayer()
+                                   .getUniqueId()))
             {
                 event.setCancelled(true);
             }
@@ -170,8 +165,8 @@ public class Cager extends Service
         @EventHandler
         public void playerLeaveEvent(final PlayerQuitEvent event)
         {
-            if (cagedPlayers.contains(event.getPlayer()
-                                           .getUniqueId()))
+            if (isTracked(event.getPlayer()
+                                   .getUniqueId()))
             {
                 uncagePlayer(event.getPlayer()
                                   .getUniqueId());
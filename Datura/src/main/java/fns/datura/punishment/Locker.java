@@ -1,10 +1,7 @@
 package fns.datura.punishment;
 
-import fns.patchwork.base.Patchwork;
-import fns.patchwork.base.Shortcuts;
-import fns.patchwork.service.Service;
-import java.util.HashSet;
-import java.util.Set;
+import fns.patchwork.service.ShardedService;
+import fns.patchwork.service.TickPriority;
 import java.util.SplittableRandom;
 import java.util.UUID;
 import org.bukkit.Bukkit;
@@ -13,40 +10,34 @@ import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
-public class Locker extends Service
+public class Locker extends ShardedService<UUID>
 {
-    private final Set<UUID> lockedPlayers = new HashSet<>();
-
     public Locker()
     {
-        super("locker-service");
+        super("locker-service", TickPriority.CRITICAL, 1);
     }
 
     public void lock(final Player player)
     {
-        lockedPlayers.add(player.getUniqueId());
+        track(player.getUniqueId());
     }
 
     public void unlock(final Player player)
     {
-        lockedPlayers.remove(player.getUniqueId());
+        untrack(player.getUniqueId());
     }
 
     @Override
-    public void tick()
+    protected void tick(final UUID uuid)
     {
-        lockedPlayers.removeIf(uuid -> !Shortcuts.provideModule(Patchwork.class)
-                                                 .getServer()
-                                                 .getOfflinePlayer(uuid)
-                                                 .isOnline());
-
-        for (final UUID uuid : lockedPlayers)
+        final Player player = Bukkit.getPlayer(uuid);
+        if (player == null)
         {
-            final Player player = Bukkit.getPlayer(uuid);
-            if (player == null) continue;
-
-            lockingMethod(player);
+            untrack(uuid);
+            return;
         }
+
+        lockingMethod(player);
     }
 
     private void lockingMethod(@NotNull final Player player)
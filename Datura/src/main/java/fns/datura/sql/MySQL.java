@@ -77,7 +77,7 @@ public class MySQL implements SQL
                     }
                 }, Shortcuts.provideModule(Patchwork.class)
                             .getExecutor()
-                            .getAsync());
+                            .getIo());
     }
 
     private CompletableFuture<Connection> getConnection()
@@ -94,7 +94,7 @@ public class MySQL implements SQL
             }
         }, Shortcuts.provideModule(Patchwork.class)
                     .getExecutor()
-                    .getAsync());
+                    .getIo());
     }
 
     @Override
@@ -114,7 +114,7 @@ public class MySQL implements SQL
                     }
                 }, Shortcuts.provideModule(Patchwork.class)
                             .getExecutor()
-                            .getAsync());
+                            .getIo());
     }
 
     @Override
@@ -133,7 +133,7 @@ public class MySQL implements SQL
                     }
                 }, Shortcuts.provideModule(Patchwork.class)
                             .getExecutor()
-                            .getAsync());
+                            .getIo());
     }
 
     @Override
@@ -152,7 +152,7 @@ public class MySQL implements SQL
                     }
                 }, Shortcuts.provideModule(Patchwork.class)
                             .getExecutor()
-                            .getAsync());
+                            .getIo());
     }
 
     @Override
@@ -196,7 +196,7 @@ public class MySQL implements SQL
                     return null;
                 }, Shortcuts.provideModule(Patchwork.class)
                             .getExecutor()
-                            .getAsync());
+                            .getIo());
     }
 
     public CompletableFuture<Boolean> updateColumn(final String table, final String column, final Object value,
@@ -205,7 +205,7 @@ public class MySQL implements SQL
         return executeUpdate("UPDATE ? SET ? = ? WHERE ? = ?", table, column, value, key, identity.getId())
                 .thenApplyAsync(result -> result > 0, Shortcuts.provideModule(Patchwork.class)
                                                                .getExecutor()
-                                                               .getAsync());
+                                                               .getIo());
     }
 
     public CompletableFuture<Boolean> deleteRow(final String table, final String key, final Identity identity)
@@ -213,7 +213,7 @@ public class MySQL implements SQL
         return executeUpdate("DELETE FROM ? WHERE ? = ?", table, key, identity.getId())
                 .thenApplyAsync(result -> result > 0, Shortcuts.provideModule(Patchwork.class)
                                                                .getExecutor()
-                                                               .getAsync());
+                                                               .getIo());
     }
 
     public CompletableFuture<Boolean> insertRow(final String table, final Object... values)
@@ -5,6 +5,7 @@ import fns.datura.perms.FreedomUser;
 import fns.patchwork.base.Patchwork;
 import fns.patchwork.base.Registration;
 import fns.patchwork.base.Shortcuts;
+import fns.patchwork.data.GroupRegistry;
 import fns.patchwork.display.adminchat.AdminChatFormat;
 import fns.patchwork.security.Group;
 import fns.patchwork.sql.SQL;
@@ -86,9 +87,11 @@ public class SimpleUserData implements UserData
                                   throw new IllegalStateException("Player should be online but they are not!");
 
                               final User user = new FreedomUser(player);
-                              final Group group = Registration
-                                                           .getGroupRegistry()
-                                                           .getGroup(g);
+                              final GroupRegistry groups = Registration.getGroupRegistry();
+                              final Group stored = groups.getGroup(g);
+                              final Group group = stored != null
+                                      ? stored
+                                      : groups.getDefaultGroup();
 
                               final long playtime = result.getLong("playtime");
                               final boolean canInteract = result.getBoolean("canInteract");
@@ -119,7 +122,7 @@ public class SimpleUserData implements UserData
                       return new SimpleUserData(player);
                   }, Shortcuts.provideModule(Patchwork.class)
                               .getExecutor()
-                              .getAsync())
+                              .getIo())
                   .join();
     }
 
@@ -242,4 +245,15 @@ public class SimpleUserData implements UserData
         this.hasCustomACFormat = format.equals(AdminChatFormat.DEFAULT.serialize());
         this.customACFormat = format;
     }
+
+    /**
+     * Removes this user's {@link UserDataUpdateEvent} from the event bus. This should be called once the user has left,
+     * so the bus no longer publishes changes to this data.
+     */
+    public void unload()
+    {
+        Shortcuts.provideModule(Patchwork.class)
+                 .getEventBus()
+                 .removeEvent(event);
+    }
 }
@@ -0,0 +1,31 @@
+package fns.datura.user;
+
+import fns.patchwork.base.Registration;
+import fns.patchwork.data.UserRegistry;
+import fns.patchwork.user.User;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Releases the data of a user when they leave the server, so neither the {@link UserRegistry} nor the event bus keeps
+ * it alive.
+ */
+public class UserListener implements Listener
+{
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerQuit(final PlayerQuitEvent event)
+    {
+        final UserRegistry registry = Registration.getUserRegistry();
+        final User user = registry.getUser(event.getPlayer());
+        if (user == null) return;
+
+        if (registry.getUserData(user) instanceof SimpleUserData data)
+        {
+            data.unload();
+        }
+
+        registry.unregisterUserData(user);
+    }
+}
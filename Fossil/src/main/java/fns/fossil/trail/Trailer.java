@@ -1,36 +1,35 @@
 package fns.fossil.trail;
 
 import fns.patchwork.particle.Trail;
-import fns.patchwork.service.Service;
-import java.util.ArrayList;
-import java.util.List;
+import fns.patchwork.service.ShardedService;
+import fns.patchwork.service.TickPriority;
 
-public class Trailer extends Service
+public class Trailer extends ShardedService<Trail>
 {
-    private final List<Trail> activeTrails = new ArrayList<>();
+    /**
+     * Every active trail spawns a particle at least this often, in ticks.
+     */
+    private static final int MAX_SHARDS = 4;
 
     // Cannot be async due to interaction with the world, and API interactions MUST be synchronized.
     public Trailer()
     {
-        super("trailer_service");
+        super("trailer_service", TickPriority.COSMETIC, MAX_SHARDS);
     }
 
     public void addTrail(final Trail trail)
     {
-        this.activeTrails.add(trail);
+        track(trail);
     }
 
     public void removeTrail(final Trail trail)
     {
-        this.activeTrails.remove(trail);
+        untrack(trail);
     }
 
     @Override
-    public void tick()
+    protected void tick(final Trail trail)
     {
-        for (final Trail trail : activeTrails)
-        {
-            trail.spawnParticle();
-        }
+        trail.spawnParticle();
     }
 }
@@ -0,0 +1,572 @@
+package fns.loom;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@code CommandDescriptor} for each {@code Commander} annotated with {@code Info}, so that Patchwork does
+ * not have to read the annotations and methods of every command with reflection when the command is created.
+ * <br>
+ * For a command named {@code FooCommand}, a public class named {@code FooCommandDescriptor} is generated in the same
+ * package. It describes the command with the values of its {@code Info}, {@code Permissive}, {@code RateLimit} and
+ * {@code Completion} annotations, and runs each {@code Base} and {@code Subcommand} method with a lambda which calls
+ * the method directly. Every generated descriptor is listed in
+ * {@code META-INF/services/fns.patchwork.command.CommandDescriptor}, where Patchwork finds them with a
+ * {@link java.util.ServiceLoader}.
+ * <br>
+ * The methods of each command are also checked against their annotations here, so a subcommand which does not take
+ * the arguments it declares is a compile error instead of an error when the plugin is enabled.
+ * <br>
+ * This processor refers to Patchwork only by name, so it does not depend on Patchwork or the Bukkit API.
+ */
+@SupportedAnnotationTypes(CommanderProcessor.INFO)
+public final class CommanderProcessor extends AbstractProcessor
+{
+    static final String INFO = "fns.patchwork.command.annotation.Info";
+    private static final String PERMISSIVE = "fns.patchwork.command.annotation.Permissive";
+    private static final String RATE_LIMIT = "fns.patchwork.command.annotation.RateLimit";
+    private static final String COMPLETION = "fns.patchwork.command.annotation.Completion";
+    private static final String COMPLETIONS = "fns.patchwork.command.annotation.Completions";
+    private static final String SUBCOMMAND = "fns.patchwork.command.annotation.Subcommand";
+    private static final String BASE = "fns.patchwork.command.annotation.Base";
+    private static final String COMMANDER = "fns.patchwork.command.Commander";
+    private static final String COMMAND_SENDER = "org.bukkit.command.CommandSender";
+    private static final String DESCRIPTOR = "fns.patchwork.command.CommandDescriptor";
+    private static final String SERVICE_FILE = "META-INF/services/" + DESCRIPTOR;
+
+    /**
+     * The descriptors generated in every round, written to the service file once processing is over.
+     */
+    private final Set<String> generated = new TreeSet<>();
+    /**
+     * The commands the descriptors were generated for, so incremental builds know what the service file came from.
+     */
+    private final List<Element> originating = new ArrayList<>();
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(final ProcessingEnvironment processingEnv)
+    {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv)
+    {
+        if (roundEnv.processingOver())
+        {
+            writeServiceFile();
+            return false;
+        }
+
+        final TypeElement info = elements.getTypeElement(INFO);
+        final TypeElement commander = elements.getTypeElement(COMMANDER);
+        final TypeElement sender = elements.getTypeElement(COMMAND_SENDER);
+        if (info == null || commander == null || sender == null)
+        {
+            return false;
+        }
+
+        for (final TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(info)))
+        {
+            final Command command = new Command(type, sender.asType());
+            if (command.check(commander.asType()))
+            {
+                write(command);
+            }
+        }
+
+        return false;
+    }
+
+    private void write(final Command command)
+    {
+        final String name = command.descriptorName();
+        try (final PrintWriter writer = new PrintWriter(filer.createSourceFile(name, command.type)
+                                                             .openWriter()))
+        {
+            command.writeTo(writer);
+        }
+        catch (IOException ex)
+        {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + name + ": " + ex.getMessage(),
+                                  command.type);
+            return;
+        }
+
+        generated.add(name);
+        originating.add(command.type);
+    }
+
+    private void writeServiceFile()
+    {
+        if (generated.isEmpty())
+        {
+            return;
+        }
+
+        try
+        {
+            final FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE,
+                                                         originating.toArray(Element[]::new));
+            try (final Writer writer = file.openWriter())
+            {
+                for (final String name : generated)
+                {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE_FILE + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Gets an annotation of an element by the name of its type.
+     *
+     * @return The annotation, or null if the element is not annotated with it.
+     */
+    private AnnotationMirror annotation(final Element element, final String name)
+    {
+        for (final AnnotationMirror mirror : element.getAnnotationMirrors())
+        {
+            if (((TypeElement) mirror.getAnnotationType()
+                                     .asElement()).getQualifiedName()
+                                                  .contentEquals(name))
+            {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the value of each element of an annotation by name, including the elements which were left as default.
+     */
+    private Map<String, Object> values(final AnnotationMirror mirror)
+    {
+        return elements.getElementValuesWithDefaults(mirror)
+                       .entrySet()
+                       .stream()
+                       .collect(Collectors.toMap(entry -> entry.getKey()
+                                                               .getSimpleName()
+                                                               .toString(),
+                                                 entry -> entry.getValue()
+                                                               .getValue()));
+    }
+
+    /**
+     * Unwraps an array value of an annotation.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> array(final Object value)
+    {
+        return ((List<? extends AnnotationValue>) value).stream()
+                                                         .map(element -> (T) element.getValue())
+                                                         .toList();
+    }
+
+    /**
+     * Writes a string as a Java string literal.
+     */
+    private static String literal(final String value)
+    {
+        final StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (final char c : value.toCharArray())
+        {
+            switch (c)
+            {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default ->
+                {
+                    if (c < 0x20 || c > 0x7e)
+                    {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+
+        return builder.append('"')
+                      .toString();
+    }
+
+    /**
+     * Writes strings as a Java string array.
+     */
+    private static String strings(final List<String> values)
+    {
+        return values.stream()
+                     .map(CommanderProcessor::literal)
+                     .collect(Collectors.joining(", ", "new String[]{", "}"));
+    }
+
+    /**
+     * A command being processed, with its annotations read and its methods checked.
+     */
+    private final class Command
+    {
+        private final TypeElement type;
+        private final TypeMirror sender;
+        private final List<Method> subcommands = new ArrayList<>();
+        private Method base;
+        private boolean valid = true;
+
+        private Command(final TypeElement type, final TypeMirror sender)
+        {
+            this.type = type;
+            this.sender = sender;
+        }
+
+        /**
+         * Checks the command and its methods, reporting every problem found.
+         *
+         * @param commander The {@code Commander} type.
+         * @return True if a descriptor can be generated for the command.
+         */
+        private boolean check(final TypeMirror commander)
+        {
+            if (type.getKind() != ElementKind.CLASS || !types.isSubtype(type.asType(), types.erasure(commander)))
+            {
+                error(type, "Classes annotated with @Info must extend " + COMMANDER + ".");
+                return false;
+            }
+
+            if (type.getModifiers()
+                    .contains(Modifier.ABSTRACT))
+            {
+                error(type, "Commands annotated with @Info must not be abstract.");
+            }
+
+            for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement())
+            {
+                if (element.getModifiers()
+                           .contains(Modifier.PRIVATE))
+                {
+                    error(type, "Commands annotated with @Info must not be private, or nested in a private class.");
+                    break;
+                }
+            }
+
+            if (annotation(type, PERMISSIVE) == null)
+            {
+                error(type, "Commands annotated with @Info must also be annotated with @Permissive.");
+            }
+
+            final AnnotationMirror limit = annotation(type, RATE_LIMIT);
+            if (limit != null)
+            {
+                final Map<String, Object> values = values(limit);
+                final double perSecond = (Double) values.get("perSecond");
+                // Infinity would pass the comparison, but can not be written back as a Java literal.
+                if ((Integer) values.get("burst") <= 0 || !(perSecond > 0.0) || !Double.isFinite(perSecond))
+                {
+                    error(type, "Rate limits must have a positive burst and a positive, finite rate.");
+                }
+            }
+
+            final Set<String> routes = new HashSet<>();
+            for (final ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements()))
+            {
+                final AnnotationMirror subcommand = annotation(method, SUBCOMMAND);
+                if (subcommand != null)
+                {
+                    final Map<String, Object> values = values(subcommand);
+                    final List<String> path = CommanderProcessor.<String>array(values.get("path"));
+                    final List<TypeMirror> args = CommanderProcessor.<TypeMirror>array(values.get("args"));
+                    final String route = path.stream()
+                                             .map(word -> word.toLowerCase(Locale.ROOT))
+                                             .toList() + " " + args.stream()
+                                                                   .map(arg -> types.erasure(arg)
+                                                                                    .toString())
+                                                                   .toList();
+                    if (!routes.add(route))
+                    {
+                        error(method, "Another subcommand of this command has the same path and arguments.");
+                    }
+
+                    final Method handle = new Method(method, (String) values.get("permission"), path, args);
+                    handle.check();
+                    subcommands.add(handle);
+                }
+
+                if (annotation(method, BASE) != null)
+                {
+                    if (base != null)
+                    {
+                        error(method, "Commands must not have more than one @Base method.");
+                    }
+
+                    base = new Method(method, null, List.of(), List.of());
+                    base.check();
+                }
+            }
+
+            return valid;
+        }
+
+        private void error(final Element element, final String message)
+        {
+            messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+            valid = false;
+        }
+
+        /**
+         * @return The qualified name of the generated descriptor. Nested commands are named after each enclosing
+         *         class, joined by underscores.
+         */
+        private String descriptorName()
+        {
+            final PackageElement pkg = elements.getPackageOf(type);
+            final String qualified = type.getQualifiedName()
+                                         .toString();
+            final String nested = pkg.isUnnamed()
+                    ? qualified
+                    : qualified.substring(pkg.getQualifiedName()
+                                             .length() + 1);
+            final String simple = nested.replace('.', '_') + "Descriptor";
+
+            return pkg.isUnnamed()
+                    ? simple
+                    : pkg.getQualifiedName() + "." + simple;
+        }
+
+        private void writeTo(final PrintWriter writer)
+        {
+            final String name = descriptorName();
+            final int dot = name.lastIndexOf('.');
+            final String command = type.getQualifiedName()
+                                       .toString();
+            final Map<String, Object> info = values(annotation(type, INFO));
+            final Map<String, Object> perms = values(annotation(type, PERMISSIVE));
+            final AnnotationMirror limit = annotation(type, RATE_LIMIT);
+
+            final List<String> calls = new ArrayList<>();
+            calls.add(".info(" + literal((String) info.get("name")) + ", " + literal((String) info.get("description"))
+                              + ", " + literal((String) info.get("usage")) + ", " + strings(array(info.get("aliases")))
+                              + ")");
+            calls.add(".permissive(" + literal((String) perms.get("perm")) + ", " + perms.get("onlyPlayers") + ", "
+                              + literal((String) perms.get("noPerms")) + ")");
+
+            if (limit != null)
+            {
+                final Map<String, Object> values = values(limit);
+                calls.add(".rateLimit(" + values.get("burst") + ", " + values.get("perSecond") + ", "
+                                  + literal((String) values.get("message")) + ")");
+            }
+
+            for (final AnnotationMirror completion : completions())
+            {
+                final Map<String, Object> values = values(completion);
+                calls.add(".completion(" + values.get("index") + ", " + strings(array(values.get("args"))) + ")");
+            }
+
+            if (base != null)
+            {
+                calls.add(".base(" + base.lambda(command) + ")");
+            }
+
+            for (final Method subcommand : subcommands)
+            {
+                final String args = subcommand.args.stream()
+                                                   .map(arg -> types.erasure(arg) + ".class")
+                                                   .collect(Collectors.joining(", "));
+                calls.add(".subcommand(" + literal(subcommand.permission) + ", " + strings(subcommand.path)
+                                  + ", new Class<?>[]{" + args + "}, " + subcommand.lambda(command) + ")");
+            }
+
+            if (dot >= 0)
+            {
+                writer.println("package " + name.substring(0, dot) + ";");
+                writer.println();
+            }
+            writer.println("@javax.annotation.processing.Generated(\"" + CommanderProcessor.class.getName() + "\")");
+            writer.println("public final class " + name.substring(dot + 1) + " extends " + DESCRIPTOR);
+            writer.println("{");
+            writer.println("    public " + name.substring(dot + 1) + "()");
+            writer.println("    {");
+            writer.println("        super(" + DESCRIPTOR + ".builder(" + command + ".class)");
+            for (final String call : calls)
+            {
+                writer.println("                " + call);
+            }
+            writer.println("        );");
+            writer.println("    }");
+            writer.println("}");
+        }
+
+        /**
+         * Gets every {@code Completion} of the command, whether it was repeated directly or through its container.
+         */
+        private List<AnnotationMirror> completions()
+        {
+            final List<AnnotationMirror> completions = new ArrayList<>();
+            final AnnotationMirror single = annotation(type, COMPLETION);
+            if (single != null)
+            {
+                completions.add(single);
+            }
+
+            final AnnotationMirror container = annotation(type, COMPLETIONS);
+            if (container != null)
+            {
+                completions.addAll(CommanderProcessor.<AnnotationMirror>array(values(container).get("value")));
+            }
+
+            return completions;
+        }
+
+        /**
+         * A {@code Base} or {@code Subcommand} method of the command.
+         */
+        private final class Method
+        {
+            private final ExecutableElement element;
+            private final String permission;
+            private final List<String> path;
+            private final List<TypeMirror> args;
+
+            private Method(final ExecutableElement element, final String permission, final List<String> path,
+                           final List<TypeMirror> args)
+            {
+                this.element = element;
+                this.permission = permission;
+                this.path = path;
+                this.args = args;
+            }
+
+            /**
+             * Checks that the method can be called with the sender and the parsed arguments.
+             */
+            private void check()
+            {
+                final Set<Modifier> modifiers = element.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC))
+                {
+                    error(element, "Command methods must not be private or static.");
+                }
+
+                final List<? extends VariableElement> parameters = element.getParameters();
+                if (parameters.size() != args.size() + 1 || !types.isSubtype(types.erasure(parameters.get(0)
+                                                                                                   .asType()),
+                                                                             sender))
+                {
+                    error(element, "Command methods must take a CommandSender or Player followed by " + args.size()
+                            + " argument(s).");
+                    return;
+                }
+
+                for (int i = 0; i < args.size(); i++)
+                {
+                    final TypeMirror parameter = parameters.get(i + 1)
+                                                           .asType();
+                    if (!types.isAssignable(boxed(args.get(i)), parameter))
+                    {
+                        error(parameters.get(i + 1), "Argument " + (i + 1) + " is parsed as " + args.get(i)
+                                + ", which can not be passed as " + parameter + ".");
+                    }
+                }
+            }
+
+            /**
+             * Writes a lambda which casts the command, the sender and each argument, and calls the method.
+             */
+            private String lambda(final String command)
+            {
+                final List<? extends VariableElement> parameters = element.getParameters();
+                final TypeMirror first = types.erasure(parameters.get(0)
+                                                                 .asType());
+                final StringBuilder builder = new StringBuilder("(command, sender, args) -> ((");
+                builder.append(command)
+                       .append(") command).")
+                       .append(element.getSimpleName())
+                       .append('(');
+                if (!types.isSameType(first, sender))
+                {
+                    builder.append('(')
+                           .append(first)
+                           .append(") ");
+                }
+                builder.append("sender");
+
+                for (int i = 0; i < args.size(); i++)
+                {
+                    builder.append(", (")
+                           .append(types.erasure(boxed(args.get(i))))
+                           .append(") args[")
+                           .append(i)
+                           .append(']');
+                }
+
+                return builder.append(')')
+                              .toString();
+            }
+
+            private TypeMirror boxed(final TypeMirror type)
+            {
+                return type.getKind()
+                           .isPrimitive()
+                        ? types.boxedClass(types.getPrimitiveType(type.getKind()))
+                               .asType()
+                        : type;
+            }
+        }
+    }
+}
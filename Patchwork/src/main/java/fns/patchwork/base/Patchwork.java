@@ -1,9 +1,18 @@
 package fns.patchwork.base;
 
+import fns.patchwork.command.CompletionListener;
+import fns.patchwork.command.NameIndex;
 import fns.patchwork.display.adminchat.AdminChatDisplay;
 import fns.patchwork.event.EventBus;
+import fns.patchwork.security.RankResolver;
 import fns.patchwork.service.FreedomExecutor;
+import fns.patchwork.service.LoadGovernor;
+import fns.patchwork.service.ProfilerSnapshotTask;
 import fns.patchwork.service.SubscriptionProvider;
+import fns.patchwork.service.Task;
+import fns.patchwork.service.TaskSubscription;
+import fns.patchwork.service.TickLoop;
+import fns.patchwork.service.TickWatchdog;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -24,36 +33,102 @@ public class Patchwork extends JavaPlugin
      * The {@link AdminChatDisplay} for this plugin.
      */
     private AdminChatDisplay acdisplay;
+    /**
+     * The {@link RankResolver} for this plugin.
+     */
+    private RankResolver rankResolver;
+    /**
+     * The {@link TickLoop} for this plugin.
+     */
+    private TickLoop tickLoop;
+    /**
+     * The {@link TickWatchdog} for this plugin.
+     */
+    private TickWatchdog watchdog;
+    /**
+     * The {@link NameIndex} for this plugin.
+     */
+    private NameIndex nameIndex;
+    /**
+     * The {@link CompletionListener} for this plugin.
+     */
+    private CompletionListener completionListener;
 
     @Override
     public void onDisable()
     {
-        Bukkit.getScheduler()
-              .runTaskLater(this, () -> Registration
-                      .getServiceTaskRegistry()
-                      .stopAllServices(), 1L);
+        // Any of these may be missing if enabling failed partway, and the scheduler no longer accepts our tasks.
+        if (eventBus != null)
+        {
+            eventBus.shutdown();
+        }
+        if (tickLoop != null)
+        {
+            tickLoop.stop();
+        }
+        if (executor != null)
+        {
+            executor.shutdown();
+        }
+        if (watchdog != null)
+        {
+            watchdog.stop();
+        }
 
         Registration.getServiceTaskRegistry()
-                          .unregisterService(EventBus.class);
+                    .stopAllServices();
+        Registration.getServiceTaskRegistry()
+                    .stopAllTasks();
+        Registration.getServiceTaskRegistry()
+                    .unregisterService(EventBus.class);
     }
 
     @Override
     public void onEnable()
     {
+        watchdog = new TickWatchdog();
+        watchdog.start();
+
+        final LoadGovernor governor = new LoadGovernor();
+        Bukkit.getPluginManager()
+              .registerEvents(governor, this);
+        tickLoop = new TickLoop(this, governor);
+        nameIndex = new NameIndex();
+        completionListener = new CompletionListener();
+        Bukkit.getPluginManager()
+              .registerEvents(nameIndex, this);
+        Bukkit.getPluginManager()
+              .registerEvents(completionListener, this);
         eventBus = new EventBus(this);
         executor = new FreedomExecutor(this);
+        rankResolver = new RankResolver(this);
         acdisplay = new AdminChatDisplay(this);
 
-
         Registration.getServiceTaskRegistry()
                           .registerService(SubscriptionProvider.asyncService(this, eventBus));
 
+        final TaskSubscription<Task> rankRefresh = SubscriptionProvider.runSyncTask(this,
+                rankResolver.createRefreshTask(), tickLoop);
+        Registration.getServiceTaskRegistry()
+                    .registerTask(rankRefresh);
+        Registration.getServiceTaskRegistry()
+                    .startTask(rankRefresh.getTask()
+                                          .getClass());
+
+        final TaskSubscription<ProfilerSnapshotTask> profilerSnapshot = SubscriptionProvider.runSyncTask(this,
+                new ProfilerSnapshotTask(this), tickLoop);
+        Registration.getServiceTaskRegistry()
+                    .registerTask(profilerSnapshot);
+        Registration.getServiceTaskRegistry()
+                    .startTask(ProfilerSnapshotTask.class);
+
         getExecutor().getSync()
                      .execute(() -> Registration
                              .getServiceTaskRegistry()
                              .startAllServices());
 
         Registration.getModuleRegistry().addModule(this);
+        tickLoop.start();
     }
 
     /**
@@ -87,4 +162,59 @@ public class Patchwork extends JavaPlugin
     {
         return acdisplay;
     }
+
+    /**
+     * Gets the {@link RankResolver} for this plugin. The RankResolver caches the highest rank of each online player, so
+     * it can be displayed without checking permissions.
+     *
+     * @return the {@link RankResolver}
+     */
+    public RankResolver getRankResolver()
+    {
+        return rankResolver;
+    }
+
+    /**
+     * Gets the {@link TickLoop} for this plugin. The TickLoop ticks every synchronous service from a single scheduled
+     * task.
+     *
+     * @return the {@link TickLoop}
+     */
+    public TickLoop getTickLoop()
+    {
+        return tickLoop;
+    }
+
+    /**
+     * Gets the {@link TickWatchdog} for this plugin. The TickWatchdog samples the stack of the main thread while a
+     * service, task or command runs for too long.
+     *
+     * @return the {@link TickWatchdog}
+     */
+    public TickWatchdog getWatchdog()
+    {
+        return watchdog;
+    }
+
+    /**
+     * Gets the {@link NameIndex} for this plugin. The NameIndex keeps the names of online players and loaded worlds
+     * sorted, so they can be completed by prefix from any thread.
+     *
+     * @return the {@link NameIndex}
+     */
+    public NameIndex getNameIndex()
+    {
+        return nameIndex;
+    }
+
+    /**
+     * Gets the {@link CompletionListener} for this plugin. The CompletionListener completes the arguments of every
+     * registered command asynchronously.
+     *
+     * @return the {@link CompletionListener}
+     */
+    public CompletionListener getCompletionListener()
+    {
+        return completionListener;
+    }
 }
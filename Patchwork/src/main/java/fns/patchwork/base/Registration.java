@@ -1,9 +1,11 @@
 package fns.patchwork.base;
 
+import fns.patchwork.data.ArgumentParserRegistry;
 import fns.patchwork.data.ConfigRegistry;
 import fns.patchwork.data.EventRegistry;
 import fns.patchwork.data.GroupRegistry;
 import fns.patchwork.data.ModuleRegistry;
+import fns.patchwork.data.ProfilerRegistry;
 import fns.patchwork.data.ServiceTaskRegistry;
 import fns.patchwork.data.UserRegistry;
 
@@ -39,6 +41,14 @@ public class Registration
      * The {@link ConfigRegistry}
      */
     private static final ConfigRegistry configRegistry = new ConfigRegistry();
+    /**
+     * The {@link ProfilerRegistry}
+     */
+    private static final ProfilerRegistry profilerRegistry = new ProfilerRegistry();
+    /**
+     * The {@link ArgumentParserRegistry}
+     */
+    private static final ArgumentParserRegistry argumentParserRegistry = new ArgumentParserRegistry();
 
     private Registration()
     {
@@ -92,4 +102,20 @@ public class Registration
     {
         return configRegistry;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return The {@link ProfilerRegistry}
+     */
+    public static ProfilerRegistry getProfilerRegistry()
+    {
+        return profilerRegistry;
+    }
+
+    /**
+     * @return The {@link ArgumentParserRegistry}
+     */
+    public static ArgumentParserRegistry getArgumentParserRegistry()
+    {
+        return argumentParserRegistry;
+    }
+}
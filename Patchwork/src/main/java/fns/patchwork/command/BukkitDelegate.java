@@ -1,17 +1,15 @@
 package fns.patchwork.command;
 
-import fns.patchwork.command.annotation.Completion;
-import fns.patchwork.command.annotation.Subcommand;
-import fns.patchwork.provider.ContextProvider;
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.base.Registration;
+import fns.patchwork.base.Shortcuts;
+import fns.patchwork.service.TickProfile;
+import fns.patchwork.service.TickWatchdog;
 import fns.patchwork.utils.logging.FreedomLogger;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import net.kyori.adventure.text.Component;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginIdentifiableCommand;
@@ -37,34 +35,77 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class BukkitDelegate extends Command implements PluginIdentifiableCommand
 {
+    /**
+     * The largest number of completions returned for a single argument.
+     */
+    static final int MAX_COMPLETIONS = 100;
+
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final String[] DIGITS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
     private final JavaPlugin plugin;
     private final Commander command;
+    private final CommandDescriptor descriptor;
     private final boolean noConsole;
+    private final TickProfile profile;
+    private final CommandRateLimiter limiter;
+    private final Component limitMessage;
+    private final NameIndex names;
+    /**
+     * The completion options of the command, indexed by the argument they complete.
+     */
+    private final String[][] completions;
 
     BukkitDelegate(final Commander command)
     {
-        super(command.getInfo()
-                     .name());
+        super(command.getDescriptor()
+                     .getName());
         this.command = command;
+        this.descriptor = command.getDescriptor();
         this.plugin = command.getPlugin();
-        this.setDescription(command.getInfo()
-                                   .description());
-        this.setUsage(command.getInfo()
-                             .usage());
-        this.setPermission(command.getPerms()
-                                  .perm());
-        this.setAliases(Arrays.asList(command.getInfo()
-                                             .aliases()));
-        this.permissionMessage(Component.text(command.getPerms()
-                                                     .noPerms()));
-        this.noConsole = command.getPerms()
-                                .onlyPlayers();
+        this.setDescription(descriptor.getDescription());
+        this.setUsage(descriptor.getUsage());
+        this.setPermission(descriptor.getPermission());
+        this.setAliases(descriptor.getAliases());
+        this.permissionMessage(Component.text(descriptor.getNoPermissionMessage()));
+        this.noConsole = descriptor.isOnlyPlayers();
+        this.profile = Registration.getProfilerRegistry()
+                                   .getProfile(TickProfile.Kind.COMMAND, getName(), Duration.ofMillis(10L));
+        this.limiter = new CommandRateLimiter(descriptor.getRateLimitBurst(), descriptor.getRateLimitPerSecond());
+        this.limitMessage = Component.text(descriptor.getRateLimitMessage());
+        this.names = Shortcuts.provideModule(Patchwork.class)
+                              .getNameIndex();
+        this.completions = descriptor.getCompletions();
     }
 
     @Override
     public boolean execute(@NotNull final CommandSender sender,
                            @NotNull final String commandLabel,
                            @NotNull final String[] args)
+    {
+        final long start = System.nanoTime();
+
+        // Shed players who exceed the rate limit before anything else is done for them.
+        if (sender instanceof Player player && !limiter.tryAcquire(player.getUniqueId(), start))
+        {
+            profile.reject();
+            sender.sendMessage(limitMessage);
+            return true;
+        }
+
+        final TickProfile enclosing = TickWatchdog.enter(profile);
+        try
+        {
+            return dispatch(sender, args);
+        }
+        finally
+        {
+            TickWatchdog.exit(enclosing);
+            profile.record(System.nanoTime() - start);
+        }
+    }
+
+    private boolean dispatch(final CommandSender sender, final String[] args)
     {
         if (!(sender instanceof Player) && noConsole)
         {
@@ -83,155 +124,117 @@ public final class BukkitDelegate extends Command implements PluginIdentifiableC
 
         if (args.length > 0)
         {
-            final ContextProvider provider = new ContextProvider();
-            final Set<Subcommand> nodes = command.getSubcommands()
-                                                 .keySet();
-            for (final Subcommand node : nodes)
-            {
-                processSubCommands(args, sender, provider, node);
-            }
-
+            route(sender, args);
             return true;
         }
 
-        if (command.getBaseMethod() != null)
+        final CommandHandle base = descriptor.getBase();
+        if (base != null)
         {
-            try
-            {
-                if (noConsole)
-                {
-                    command.getBaseMethod()
-                           .invoke(command, (Player) sender);
-                }
-                else
-                {
-                    command.getBaseMethod()
-                           .invoke(command, sender);
-                }
-            }
-            catch (Exception ex)
-            {
-                FreedomLogger.getLogger("Patchwork")
-                             .error(ex);
-            }
-
+            invoke(base, sender, NO_ARGS);
             return true;
         }
 
         return false;
     }
 
-    private void processSubCommands(final @NotNull String @NotNull [] args,
-                                    final CommandSender sender, final ContextProvider provider,
-                                    final Subcommand node)
+    private void route(final CommandSender sender, final String[] args)
     {
-        final Class<?>[] argTypes = node.args();
-        if (argTypes.length > args.length)
+        final CommandRouter.Resolution resolution = command.getRouter()
+                                                           .route(args);
+        if (!resolution.isSuccess())
+        {
+            sender.sendMessage(Component.text(resolution.error() == null
+                                                      ? "Usage: " + getUsage()
+                                                      : resolution.error()));
             return;
+        }
 
-        final Object[] objects = new Object[argTypes.length + 1];
-
-        for (int i = 0; i < argTypes.length; i++)
+        final CommandDescriptor.Route route = resolution.route();
+        if (!route.permission().isEmpty() && !sender.hasPermission(route.permission()))
         {
-            final Class<?> argType = argTypes[i];
-            final String arg = args[i];
-
-            if (argType.equals(String.class))
-            {
-                if (i == argTypes.length - 1)
-                {
-                    final String[] reasonArgs = Arrays.copyOfRange(args, i, args.length - 1);
-                    final String reason = String.join(" ", reasonArgs);
-                    objects[i] = reason;
-                }
-                else
-                {
-                    continue;
-                }
-            }
+            sender.sendMessage(Component.text(descriptor.getNoPermissionMessage()));
+            return;
+        }
 
-            if (argType.equals(Location.class))
-            {
-                final String[] locationArgs = Arrays.copyOfRange(args, i, i + 3);
-                final String location = String.join(" ", locationArgs);
-                objects[i] = location;
-            }
+        invoke(route.handle(), sender, resolution.args());
+    }
 
-            final Object obj = provider.fromString(arg, argType);
-            if (obj == null)
-            {
-                FreedomLogger.getLogger("Datura")
-                             .error("Failed to parse argument " + arg + " for type " + argType.getName());
-                return;
-            }
-            objects[i] = obj;
-        }
+    private void invoke(final CommandHandle handle, final CommandSender sender, final Object[] args)
+    {
         try
         {
-            if (noConsole)
-            {
-                command.getSubcommands()
-                       .get(node)
-                       .invoke(command, (Player) sender, objects);
-            }
-            else
-            {
-                command.getSubcommands()
-                       .get(node)
-                       .invoke(command, sender, objects);
-            }
+            handle.invoke(command, sender, args);
+        }
+        catch (Error error)
+        {
+            throw error;
         }
-        catch (Exception ex)
+        catch (Throwable th)
         {
             FreedomLogger.getLogger("Patchwork")
-                         .error(ex);
+                         .error(th);
         }
     }
 
     @Override
     public List<String> tabComplete(final CommandSender sender, final String alias, final String[] args)
     {
-        final Set<Completion> completions = command.getCompletions();
+        return complete(args);
+    }
+
+    /**
+     * Completes the last argument. This only reads state which is safe to read from any thread, so it is also used
+     * for asynchronous completion by the {@link CompletionListener}.
+     *
+     * @param args The arguments typed so far. The last argument is the one being completed, and may be empty.
+     * @return At most {@link #MAX_COMPLETIONS} completions.
+     */
+    List<String> complete(final String[] args)
+    {
+        final int index = args.length - 1;
+        if (index < 0 || index >= completions.length)
+        {
+            return List.of();
+        }
+
+        final String prefix = args[index];
         final List<String> results = new ArrayList<>();
-        for (final Completion completion : completions)
+        for (final String option : completions[index])
         {
-            if (completion.index() != args.length)
+            final int remaining = MAX_COMPLETIONS - results.size();
+            if (remaining <= 0)
             {
-                continue;
+                break;
             }
 
-            for (final String p : completion.args())
+            switch (option)
             {
-                switch (p)
+                case "%player%" -> names.completePlayers(prefix, remaining, results);
+                case "%world%" -> names.completeWorlds(prefix, remaining, results);
+                case "%number%" ->
                 {
-                    case "%player%" -> results.addAll(Bukkit.getOnlinePlayers()
-                                                            .stream()
-                                                            .map(Player::getName)
-                                                            .toList());
-                    case "%world%" -> results.addAll(Bukkit.getWorlds()
-                                                           .stream()
-                                                           .map(World::getName)
-                                                           .toList());
-                    case "%number%" -> results.addAll(List.of(
-                        "0",
-                        "1",
-                        "2",
-                        "3",
-                        "4",
-                        "5",
-                        "6",
-                        "7",
-                        "8",
-                        "9"));
-                    case "%location%" -> results.add("world x y z");
-                    default -> results.add(p);
+                    for (final String digit : DIGITS)
+                    {
+                        addIfMatches(results, digit, prefix);
+                    }
                 }
+                case "%location%" -> addIfMatches(results, "world x y z", prefix);
+                default -> addIfMatches(results, option, prefix);
             }
         }
 
-        return results.stream()
-                      .filter(s -> s.startsWith(args[args.length - 1]))
-                      .toList();
+        return results.size() > MAX_COMPLETIONS
+                ? results.subList(0, MAX_COMPLETIONS)
+                : results;
+    }
+
+    private static void addIfMatches(final List<String> results, final String option, final String prefix)
+    {
+        if (option.regionMatches(true, 0, prefix, 0, prefix.length()))
+        {
+            results.add(option);
+        }
     }
 
     @Override
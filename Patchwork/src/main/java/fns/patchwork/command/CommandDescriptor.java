@@ -0,0 +1,340 @@
+package fns.patchwork.command;
+
+import fns.patchwork.command.annotation.Base;
+import fns.patchwork.command.annotation.Completion;
+import fns.patchwork.command.annotation.Info;
+import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.RateLimit;
+import fns.patchwork.command.annotation.Subcommand;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes everything Patchwork needs to register and run a {@link Commander}: the values of its {@link Info},
+ * {@link Permissive}, {@link RateLimit} and {@link Completion} annotations, and a {@link CommandHandle} for its
+ * {@link Base} method and each of its {@link Subcommand} methods.
+ * <br>
+ * Descriptors are normally generated at build time by the Loom annotation processor, as a subclass named after the
+ * command with a {@code Descriptor} suffix, and found through a {@link java.util.ServiceLoader}. Commands which were
+ * not processed are described from their annotations at runtime instead. Either way, a command class is only
+ * described once.
+ */
+public class CommandDescriptor
+{
+    private final Class<? extends Commander> type;
+    private final String name;
+    private final String description;
+    private final String usage;
+    private final String[] aliases;
+    private final String permission;
+    private final boolean onlyPlayers;
+    private final String noPermissionMessage;
+    private final int rateLimitBurst;
+    private final double rateLimitPerSecond;
+    private final String rateLimitMessage;
+    private final String[][] completions;
+    private final CommandHandle base;
+    private final List<Route> routes;
+
+    /**
+     * Creates a descriptor from a builder. Generated descriptors call this from their no-argument constructor.
+     *
+     * @param builder The builder holding the description of the command.
+     */
+    protected CommandDescriptor(final Builder builder)
+    {
+        this.type = builder.type;
+        this.name = builder.name;
+        this.description = builder.description;
+        this.usage = builder.usage;
+        this.aliases = builder.aliases;
+        this.permission = builder.permission;
+        this.onlyPlayers = builder.onlyPlayers;
+        this.noPermissionMessage = builder.noPermissionMessage;
+        this.rateLimitBurst = builder.rateLimitBurst;
+        this.rateLimitPerSecond = builder.rateLimitPerSecond;
+        this.rateLimitMessage = builder.rateLimitMessage;
+        this.completions = builder.completions.stream()
+                                              .map(options -> options.toArray(String[]::new))
+                                              .toArray(String[][]::new);
+        this.base = builder.base;
+        this.routes = List.copyOf(builder.routes);
+    }
+
+    /**
+     * Starts describing a command.
+     *
+     * @param type The class of the command.
+     * @return A new builder.
+     */
+    public static Builder builder(final Class<? extends Commander> type)
+    {
+        return new Builder(type);
+    }
+
+    /**
+     * @return The class of the command.
+     */
+    public Class<? extends Commander> getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return The name of the command, from {@link Info#name()}.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return The description of the command, from {@link Info#description()}.
+     */
+    public String getDescription()
+    {
+        return description;
+    }
+
+    /**
+     * @return The usage of the command, from {@link Info#usage()}.
+     */
+    public String getUsage()
+    {
+        return usage;
+    }
+
+    /**
+     * @return The aliases of the command, from {@link Info#aliases()}.
+     */
+    public List<String> getAliases()
+    {
+        return List.of(aliases);
+    }
+
+    /**
+     * @return The permission of the command, from {@link Permissive#perm()}.
+     */
+    public String getPermission()
+    {
+        return permission;
+    }
+
+    /**
+     * @return True if the command is only for players, from {@link Permissive#onlyPlayers()}.
+     */
+    public boolean isOnlyPlayers()
+    {
+        return onlyPlayers;
+    }
+
+    /**
+     * @return The message to send if the sender does not have permission, from {@link Permissive#noPerms()}.
+     */
+    public String getNoPermissionMessage()
+    {
+        return noPermissionMessage;
+    }
+
+    /**
+     * @return The number of executions a player may make in quick succession, from {@link RateLimit#burst()}.
+     */
+    public int getRateLimitBurst()
+    {
+        return rateLimitBurst;
+    }
+
+    /**
+     * @return The number of executions per second a player may sustain, from {@link RateLimit#perSecond()}.
+     */
+    public double getRateLimitPerSecond()
+    {
+        return rateLimitPerSecond;
+    }
+
+    /**
+     * @return The message to send if an execution is rejected, from {@link RateLimit#message()}.
+     */
+    public String getRateLimitMessage()
+    {
+        return rateLimitMessage;
+    }
+
+    /**
+     * @return The completion options of the command, indexed by the argument they complete.
+     */
+    String[][] getCompletions()
+    {
+        return completions;
+    }
+
+    /**
+     * @return The handle of the {@link Base} method, or null if the command does not have one.
+     */
+    @Nullable
+    public CommandHandle getBase()
+    {
+        return base;
+    }
+
+    /**
+     * @return The route to each {@link Subcommand} method.
+     */
+    @NotNull
+    public List<Route> getRoutes()
+    {
+        return routes;
+    }
+
+    /**
+     * A {@link Subcommand} method, with the values of its annotation.
+     *
+     * @param permission The permission of the subcommand.
+     * @param path       The literal words which precede the arguments.
+     * @param args       The types of the arguments.
+     * @param handle     The handle which runs the method.
+     */
+    public record Route(String permission, String[] path, Class<?>[] args, CommandHandle handle)
+    {
+    }
+
+    /**
+     * Builds a {@link CommandDescriptor}. Every value starts out as the default value of its annotation.
+     */
+    public static final class Builder
+    {
+        private final Class<? extends Commander> type;
+        private final List<List<String>> completions = new ArrayList<>();
+        private final List<Route> routes = new ArrayList<>();
+        private String name;
+        private String description = "This is the default command description.";
+        private String usage = "/<command>";
+        private String[] aliases = {};
+        private String permission;
+        private boolean onlyPlayers = false;
+        private String noPermissionMessage = "You do not have permission to use this command.";
+        private int rateLimitBurst = 10;
+        private double rateLimitPerSecond = 2.0;
+        private String rateLimitMessage = "You are using this command too quickly.";
+        private CommandHandle base;
+
+        private Builder(final Class<? extends Commander> type)
+        {
+            this.type = type;
+        }
+
+        /**
+         * Sets the values of the {@link Info} annotation.
+         *
+         * @param name        The name of the command.
+         * @param description The description of the command.
+         * @param usage       The usage of the command.
+         * @param aliases     The aliases of the command.
+         * @return This builder.
+         */
+        public Builder info(final String name, final String description, final String usage,
+                            final String... aliases)
+        {
+            this.name = name;
+            this.description = description;
+            this.usage = usage;
+            this.aliases = aliases;
+            return this;
+        }
+
+        /**
+         * Sets the values of the {@link Permissive} annotation.
+         *
+         * @param permission          The permission of the command.
+         * @param onlyPlayers         True if the command is only for players.
+         * @param noPermissionMessage The message to send if the sender does not have permission.
+         * @return This builder.
+         */
+        public Builder permissive(final String permission, final boolean onlyPlayers, final String noPermissionMessage)
+        {
+            this.permission = permission;
+            this.onlyPlayers = onlyPlayers;
+            this.noPermissionMessage = noPermissionMessage;
+            return this;
+        }
+
+        /**
+         * Sets the values of the {@link RateLimit} annotation.
+         *
+         * @param burst     The number of executions a player may make in quick succession.
+         * @param perSecond The number of executions per second a player may sustain.
+         * @param message   The message to send if an execution is rejected.
+         * @return This builder.
+         */
+        public Builder rateLimit(final int burst, final double perSecond, final String message)
+        {
+            this.rateLimitBurst = burst;
+            this.rateLimitPerSecond = perSecond;
+            this.rateLimitMessage = message;
+            return this;
+        }
+
+        /**
+         * Adds the values of a {@link Completion} annotation.
+         *
+         * @param index The index of the argument the options complete.
+         * @param args  The options.
+         * @return This builder.
+         */
+        public Builder completion(final int index, final String... args)
+        {
+            while (completions.size() <= index)
+            {
+                completions.add(new ArrayList<>());
+            }
+
+            completions.get(index)
+                       .addAll(List.of(args));
+            return this;
+        }
+
+        /**
+         * Sets the handle of the {@link Base} method.
+         *
+         * @param handle The handle which runs the method.
+         * @return This builder.
+         * @throws IllegalStateException If a base method has already been set.
+         */
+        public Builder base(final CommandHandle handle)
+        {
+            if (this.base != null)
+            {
+                throw new IllegalStateException("Command " + type.getName() + " has more than one base method.");
+            }
+
+            this.base = handle;
+            return this;
+        }
+
+        /**
+         * Adds a {@link Subcommand} method.
+         *
+         * @param permission The permission of the subcommand.
+         * @param path       The literal words which precede the arguments.
+         * @param args       The types of the arguments.
+         * @param handle     The handle which runs the method.
+         * @return This builder.
+         */
+        public Builder subcommand(final String permission, final String[] path, final Class<?>[] args,
+                                  final CommandHandle handle)
+        {
+            routes.add(new Route(permission, path, args, handle));
+            return this;
+        }
+
+        /**
+         * @return The descriptor.
+         */
+        public CommandDescriptor build()
+        {
+            return new CommandDescriptor(this);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package fns.patchwork.command;
+
+import fns.patchwork.command.annotation.Base;
+import fns.patchwork.command.annotation.Completion;
+import fns.patchwork.command.annotation.Info;
+import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.RateLimit;
+import fns.patchwork.command.annotation.Subcommand;
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the {@link CommandDescriptor} of each {@link Commander} class.
+ * <br>
+ * The first time a command from a plugin is described, every descriptor which was generated for that plugin at build
+ * time is loaded through a {@link ServiceLoader} on the plugin's class loader. Commands without a generated descriptor
+ * are described from their annotations and methods with reflection. Descriptors are cached, so each command class is
+ * only described once while its plugin is enabled.
+ * <br>
+ * The cache holds the command classes strongly, so the descriptors of a plugin must be forgotten with
+ * {@link #forget(ClassLoader)} when it is disabled. Otherwise, the plugin's class loader could never be collected.
+ */
+final class CommandDescriptors
+{
+    private static final Map<Class<?>, CommandDescriptor> descriptors = new ConcurrentHashMap<>();
+    private static final Set<ClassLoader> loaded = ConcurrentHashMap.newKeySet();
+
+    private CommandDescriptors()
+    {
+        throw new AssertionError();
+    }
+
+    /**
+     * Gets the descriptor of a command class.
+     *
+     * @param type The class of the command.
+     * @return The descriptor.
+     * @throws IllegalStateException If the command has no generated descriptor, and its methods do not match their
+     *                               annotations.
+     */
+    static CommandDescriptor of(final Class<? extends Commander> type)
+    {
+        final ClassLoader loader = type.getClassLoader();
+        if (loaded.add(loader))
+        {
+            load(loader);
+        }
+
+        return descriptors.computeIfAbsent(type, k -> reflect(type));
+    }
+
+    /**
+     * Removes every cached descriptor of the classes defined by a class loader, and allows its generated descriptors to
+     * be loaded again. This is called when the plugin which owns the class loader is disabled.
+     *
+     * @param loader The class loader of the plugin.
+     */
+    static void forget(final ClassLoader loader)
+    {
+        descriptors.keySet()
+                   .removeIf(type -> type.getClassLoader() == loader);
+        loaded.remove(loader);
+    }
+
+    private static void load(final ClassLoader loader)
+    {
+        try
+        {
+            for (final CommandDescriptor descriptor : ServiceLoader.load(CommandDescriptor.class, loader))
+            {
+                descriptors.putIfAbsent(descriptor.getType(), descriptor);
+            }
+        }
+        catch (ServiceConfigurationError error)
+        {
+            FreedomLogger.getLogger("Patchwork")
+                         .error("Failed to load generated command descriptors; falling back to reflection: "
+                                        + error.getMessage());
+        }
+    }
+
+    /**
+     * Describes a command from its annotations, and compiles each of its annotated methods into a
+     * {@link CommandInvoker}.
+     */
+    private static CommandDescriptor reflect(final Class<? extends Commander> type)
+    {
+        final Info info = type.getDeclaredAnnotation(Info.class);
+        final Permissive perms = type.getDeclaredAnnotation(Permissive.class);
+        final RateLimit limit = type.getDeclaredAnnotation(RateLimit.class);
+
+        final CommandDescriptor.Builder builder = CommandDescriptor.builder(type)
+                                                                   .info(info.name(), info.description(),
+                                                                         info.usage(), info.aliases())
+                                                                   .permissive(perms.perm(), perms.onlyPlayers(),
+                                                                               perms.noPerms());
+        if (limit != null)
+        {
+            builder.rateLimit(limit.burst(), limit.perSecond(), limit.message());
+        }
+
+        for (final Completion completion : type.getDeclaredAnnotationsByType(Completion.class))
+        {
+            builder.completion(completion.index(), completion.args());
+        }
+
+        for (final Method method : type.getDeclaredMethods())
+        {
+            final Subcommand subcommand = method.getDeclaredAnnotation(Subcommand.class);
+            if (subcommand != null)
+            {
+                builder.subcommand(subcommand.permission(), subcommand.path(), subcommand.args(),
+                                   CommandInvoker.compile(method, subcommand.args()));
+            }
+
+            if (method.isAnnotationPresent(Base.class))
+            {
+                builder.base(CommandInvoker.compile(method, new Class<?>[0]));
+            }
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,24 @@
+package fns.patchwork.command;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * Runs a single {@link fns.patchwork.command.annotation.Base} or {@link fns.patchwork.command.annotation.Subcommand}
+ * method of a {@link Commander}.
+ * <br>
+ * Handles are created once per command class, either by the annotation processor at build time, which generates a
+ * direct call to the method, or from the method's annotations at runtime.
+ */
+@FunctionalInterface
+public interface CommandHandle
+{
+    /**
+     * Runs the method.
+     *
+     * @param command The command instance to run the method on.
+     * @param sender  The sender of the command. This must be an instance of the method's first parameter type.
+     * @param args    The parsed arguments, one for each argument of the method.
+     * @throws Throwable Anything thrown by the method.
+     */
+    void invoke(Commander command, CommandSender sender, Object[] args) throws Throwable;
+}
@@ -1,5 +1,7 @@
 package fns.patchwork.command;
 
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.base.Shortcuts;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandMap;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -29,7 +31,8 @@ public class CommandHandler
 
     /**
      * Registers a command. This method will automatically delegate the command information to the Bukkit API and
-     * register with the {@link CommandMap}.
+     * register with the {@link CommandMap}. The command is also registered with the {@link CompletionListener}, so its
+     * arguments are completed asynchronously.
      *
      * @param command The command to register.
      * @param <T>     The type of the command.
@@ -40,5 +43,8 @@ public class CommandHandler
 
         Bukkit.getCommandMap()
               .register(plugin.getName(), delegate);
+        Shortcuts.provideModule(Patchwork.class)
+                 .getCompletionListener()
+                 .register(delegate);
     }
 }
@@ -0,0 +1,84 @@
+package fns.patchwork.command;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import org.bukkit.command.CommandSender;
+
+/**
+ * A {@link Commander} method which has been compiled into a {@link MethodHandle}, for commands which were not described
+ * at build time.
+ * <br>
+ * The handle is adapted once, when the command class is first described, to take the command, the sender, and the
+ * parsed arguments as an array. The command is cast to the class which declares the method, the sender is cast to the
+ * type of the method's first parameter, and each argument is cast or unboxed to the type of its parameter. Running the
+ * command is then a single {@link MethodHandle#invokeExact} call, with no reflective access checks or argument copying
+ * on each execution.
+ */
+final class CommandInvoker implements CommandHandle
+{
+    private final MethodHandle handle;
+
+    private CommandInvoker(final MethodHandle handle)
+    {
+        this.handle = handle;
+    }
+
+    /**
+     * Compiles a command method.
+     *
+     * @param method The method to compile. Its first parameter must accept the command sender, and it must have one
+     *               further parameter for each argument.
+     * @param args   The types of the arguments of the method, in order.
+     * @return The compiled invoker.
+     * @throws IllegalStateException If the method does not match the arguments, or can not be accessed.
+     */
+    static CommandInvoker compile(final Method method, final Class<?>[] args)
+    {
+        final Class<?>[] parameters = method.getParameterTypes();
+        if (parameters.length != args.length + 1 || !CommandSender.class.isAssignableFrom(parameters[0]))
+        {
+            throw new IllegalStateException("Command method " + method + " must take a CommandSender or Player "
+                                                    + "followed by " + args.length + " argument(s).");
+        }
+
+        try
+        {
+            method.trySetAccessible();
+            final MethodHandle handle = MethodHandles.lookup()
+                                                     .unreflect(method)
+                                                     .asType(erased(parameters))
+                                                     .asSpreader(Object[].class, args.length);
+
+            return new CommandInvoker(handle);
+        }
+        catch (IllegalAccessException ex)
+        {
+            throw new IllegalStateException("Command method " + method + " is not accessible.", ex);
+        }
+    }
+
+    @Override
+    public void invoke(final Commander command, final CommandSender sender, final Object[] args) throws Throwable
+    {
+        handle.invokeExact(command, sender, args);
+    }
+
+    /**
+     * Builds the type which takes the command as a {@link Commander}, the sender as a {@link CommandSender} and every
+     * argument as an {@link Object}, so the command, the sender and the arguments are cast by the handle itself.
+     */
+    private static MethodType erased(final Class<?>[] parameters)
+    {
+        final Class<?>[] erased = new Class<?>[parameters.length + 1];
+        erased[0] = Commander.class;
+        erased[1] = CommandSender.class;
+        for (int i = 2; i < erased.length; i++)
+        {
+            erased[i] = Object.class;
+        }
+
+        return MethodType.methodType(void.class, erased);
+    }
+}
@@ -0,0 +1,94 @@
+package fns.patchwork.command;
+
+import fns.patchwork.command.annotation.RateLimit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits a single command with a token bucket for each player, as configured by {@link RateLimit}.
+ * <br>
+ * A bucket is created the first time a player uses the command. Buckets which have been idle long enough to refill
+ * completely are no different from new buckets, so they are swept out at most once a minute to keep the map from
+ * growing with every player who ever used the command.
+ * <br>
+ * Commands are only executed on the main thread, so this class is not thread-safe.
+ */
+final class CommandRateLimiter
+{
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1L);
+
+    private final Map<UUID, Bucket> buckets = new HashMap<>();
+    private final double burst;
+    private final double tokensPerNano;
+    private final long refillNanos;
+    private long sweptAt;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param burst     The number of executions a player may make in quick succession.
+     * @param perSecond The number of executions per second a player may sustain.
+     * @throws IllegalStateException If the burst is not positive, or the rate is not positive and finite.
+     */
+    CommandRateLimiter(final int burst, final double perSecond)
+    {
+        if (burst <= 0 || !(perSecond > 0.0) || !Double.isFinite(perSecond))
+        {
+            throw new IllegalStateException("Rate limits must have a positive burst and a positive, finite rate.");
+        }
+
+        this.burst = burst;
+        this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1L);
+        this.refillNanos = (long) Math.ceil(burst / tokensPerNano);
+        this.sweptAt = System.nanoTime();
+    }
+
+    /**
+     * Takes a token from the bucket of a player.
+     *
+     * @param player The unique id of the player.
+     * @param now    The current time, from {@link System#nanoTime()}.
+     * @return True if the player had a token and may run the command, false if the execution should be rejected.
+     */
+    boolean tryAcquire(final UUID player, final long now)
+    {
+        if (now - sweptAt >= SWEEP_INTERVAL_NANOS)
+        {
+            sweptAt = now;
+            buckets.values()
+                   .removeIf(bucket -> now - bucket.updatedAt >= refillNanos);
+        }
+
+        Bucket bucket = buckets.get(player);
+        if (bucket == null)
+        {
+            bucket = new Bucket(burst, now);
+            buckets.put(player, bucket);
+        }
+
+        bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+        bucket.updatedAt = now;
+
+        if (bucket.tokens < 1.0)
+        {
+            return false;
+        }
+
+        bucket.tokens -= 1.0;
+        return true;
+    }
+
+    private static final class Bucket
+    {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(final double tokens, final long updatedAt)
+        {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
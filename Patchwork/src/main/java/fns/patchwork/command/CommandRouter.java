@@ -0,0 +1,380 @@
+package fns.patchwork.command;
+
+import fns.patchwork.base.Registration;
+import fns.patchwork.command.annotation.Subcommand;
+import fns.patchwork.data.ArgumentParserRegistry;
+import fns.patchwork.provider.ArgumentParser;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Resolves the arguments of a command to exactly one {@link Subcommand}.
+ * <br>
+ * The router is built once per {@link Commander}, as a trie. The first levels are keyed on the literal words of each
+ * subcommand's {@link Subcommand#path() path}, and the levels below them are keyed on the type of each argument, so
+ * subcommands which share a path and leading argument types share nodes, and each shared argument is only parsed once.
+ * <br>
+ * Resolution is deterministic:
+ * <ol>
+ *     <li>The literal words are followed as far as the input allows. If nothing matches there, the router backs off
+ *     one word at a time, so a player called {@code all} can still be targeted when an {@code all} path exists.</li>
+ *     <li>Below a literal node, argument types are tried from the most specific to the least specific, for example
+ *     {@link Integer} before {@link Double}, and {@link Player} before {@link String}. The first overload whose
+ *     arguments all parse wins, and routes which consume every word are preferred over a trailing {@link String}
+ *     which joins the remaining words.</li>
+ *     <li>If two types of equal specificity, such as {@link Player} and {@link World}, both lead to a match, the input
+ *     is ambiguous and no subcommand is run.</li>
+ * </ol>
+ * Only the arguments along the resolved route are parsed, each by the one {@link ArgumentParser} registered for its
+ * type; other subcommands cost nothing.
+ */
+final class CommandRouter
+{
+    private final LiteralNode root = new LiteralNode();
+    private final ArgumentParserRegistry parsers = Registration.getArgumentParserRegistry();
+    private int maxArity = 0;
+
+    /**
+     * Builds the router for the subcommands of a command.
+     *
+     * @param descriptor The description of the command.
+     * @throws IllegalStateException If two subcommands have the same path and argument types.
+     */
+    CommandRouter(final CommandDescriptor descriptor)
+    {
+        for (final CommandDescriptor.Route route : descriptor.getRoutes())
+        {
+            add(descriptor, route);
+        }
+        root.sort();
+    }
+
+    private void add(final CommandDescriptor descriptor, final CommandDescriptor.Route route)
+    {
+        LiteralNode literal = root;
+        for (final String word : route.path())
+        {
+            literal = literal.children.computeIfAbsent(word.toLowerCase(Locale.ROOT), k -> new LiteralNode());
+        }
+
+        ArgumentNode node = literal.arguments;
+        for (final Class<?> type : route.args())
+        {
+            node = node.child(type);
+        }
+
+        if (node.route != null)
+        {
+            final String command = descriptor.getType()
+                                             .getName();
+            throw new IllegalStateException("Command " + command + " has more than one subcommand with the path "
+                                                    + Arrays.toString(route.path()) + " and the arguments "
+                                                    + Arrays.toString(route.args()) + ".");
+        }
+
+        node.route = route;
+        maxArity = Math.max(maxArity, route.args().length);
+    }
+
+    /**
+     * Resolves the arguments of a command.
+     *
+     * @param args The arguments, as typed by the sender. There must be at least one.
+     * @return The resolved subcommand and its parsed arguments, or the reason no subcommand could be resolved.
+     */
+    Resolution route(final String[] args)
+    {
+        final Deque<LiteralNode> literals = new ArrayDeque<>();
+        LiteralNode literal = root;
+        literals.push(literal);
+        while (literals.size() <= args.length)
+        {
+            literal = literal.children.get(args[literals.size() - 1].toLowerCase(Locale.ROOT));
+            if (literal == null)
+            {
+                break;
+            }
+            literals.push(literal);
+        }
+
+        final Attempt attempt = new Attempt(args, new Object[maxArity]);
+        while (!literals.isEmpty())
+        {
+            final int consumed = literals.size() - 1;
+            final Resolution resolution = descend(literals.pop().arguments, attempt, consumed, consumed, 0);
+            if (resolution != null)
+            {
+                return resolution;
+            }
+            if (attempt.ambiguity != null)
+            {
+                return Resolution.failure(attempt.ambiguity);
+            }
+        }
+
+        // Only blame an argument which nothing could parse; otherwise the wrong number of arguments was given.
+        if (attempt.failedIndex > attempt.parsedIndex)
+        {
+            final List<String> expected = attempt.failedTypes.stream()
+                                                             .map(CommandRouter::describe)
+                                                             .distinct()
+                                                             .toList();
+            final String last = expected.get(expected.size() - 1);
+            final String types = expected.size() == 1
+                    ? last
+                    : String.join(", ", expected.subList(0, expected.size() - 1)) + " or " + last;
+            return Resolution.failure("Invalid argument '" + args[attempt.failedIndex] + "': expected " + types + ".");
+        }
+
+        return Resolution.failure(null);
+    }
+
+    private Resolution descend(final ArgumentNode node, final Attempt attempt, final int start, final int index,
+                               final int depth)
+    {
+        final String[] args = attempt.args;
+
+        for (final ArgumentNode[] group : node.groups)
+        {
+            Resolution found = null;
+            ArgumentNode foundNode = null;
+
+            for (final ArgumentNode child : group)
+            {
+                final ArgumentParser<?> parser = parsers.getParser(child.type);
+                final Object value = parser != null && index + parser.width() <= args.length
+                        ? parse(parser, args, index)
+                        : null;
+
+                if (value == null)
+                {
+                    attempt.fail(index, child.type);
+                    continue;
+                }
+
+                attempt.parsed(index);
+                attempt.values[depth] = value;
+                final Resolution resolution = descend(child, attempt, index, index + parser.width(), depth + 1);
+                if (attempt.ambiguity != null)
+                {
+                    return null;
+                }
+                if (resolution == null)
+                {
+                    continue;
+                }
+                if (found != null)
+                {
+                    attempt.ambiguity = "Ambiguous argument '" + args[index] + "': it could be "
+                            + describe(foundNode.type) + " or " + describe(child.type) + ".";
+                    return null;
+                }
+
+                found = resolution;
+                foundNode = child;
+            }
+
+            if (found != null)
+            {
+                return found;
+            }
+        }
+
+        if (node.route == null)
+        {
+            return null;
+        }
+
+        if (index == args.length)
+        {
+            return Resolution.success(node.route, Arrays.copyOf(attempt.values, depth));
+        }
+
+        // A trailing String takes every remaining word, so it may be used for a reason.
+        if (node.type == String.class)
+        {
+            final Object[] values = Arrays.copyOf(attempt.values, depth);
+            values[depth - 1] = String.join(" ", Arrays.copyOfRange(args, start, args.length));
+            return Resolution.success(node.route, values);
+        }
+
+        return null;
+    }
+
+    private static Object parse(final ArgumentParser<?> parser, final String[] args, final int index)
+    {
+        final int width = parser.width();
+        return parser.parse(width == 1
+                                    ? args[index]
+                                    : String.join(" ", Arrays.copyOfRange(args, index, index + width)));
+    }
+
+    /**
+     * Ranks argument types from the least specific to the most specific. Types are tried in descending order, and
+     * types of equal rank are ambiguous with each other.
+     */
+    private static int specificity(final Class<?> type)
+    {
+        if (type == Boolean.class)
+            return 8;
+        if (type == Integer.class)
+            return 7;
+        if (type == Long.class)
+            return 6;
+        if (type == Float.class)
+            return 5;
+        if (type == Double.class)
+            return 4;
+        if (type == Location.class)
+            return 3;
+        if (type == Player.class || type == World.class || type == Material.class)
+            return 2;
+        if (type == String.class)
+            return 0;
+        return 1;
+    }
+
+    private static String describe(final Class<?> type)
+    {
+        if (type == Component.class)
+            return "text";
+
+        final String name = type.getSimpleName()
+                                .toLowerCase(Locale.ROOT);
+        return ("aeiou".indexOf(name.charAt(0)) >= 0
+                ? "an "
+                : "a ") + name;
+    }
+
+    /**
+     * The outcome of {@link #route(String[])}. Either the route and its arguments are set, or the error is. The
+     * error is null if no subcommand accepts the number of arguments given, in which case the usage should be shown.
+     */
+    record Resolution(CommandDescriptor.Route route, Object[] args, String error)
+    {
+        static Resolution success(final CommandDescriptor.Route route, final Object[] args)
+        {
+            return new Resolution(route, args, null);
+        }
+
+        static Resolution failure(final String error)
+        {
+            return new Resolution(null, null, error);
+        }
+
+        boolean isSuccess()
+        {
+            return route != null;
+        }
+    }
+
+    private static final class LiteralNode
+    {
+        private final Map<String, LiteralNode> children = new HashMap<>();
+        private final ArgumentNode arguments = new ArgumentNode(null);
+
+        private void sort()
+        {
+            arguments.sort();
+            children.values()
+                    .forEach(LiteralNode::sort);
+        }
+    }
+
+    private static final class ArgumentNode
+    {
+        private final Class<?> type;
+        private final Map<Class<?>, ArgumentNode> children = new HashMap<>();
+        /**
+         * The children, grouped by specificity from the most specific to the least specific.
+         */
+        private ArgumentNode[][] groups = new ArgumentNode[0][];
+        private CommandDescriptor.Route route;
+
+        private ArgumentNode(final Class<?> type)
+        {
+            this.type = type;
+        }
+
+        private ArgumentNode child(final Class<?> type)
+        {
+            return children.computeIfAbsent(type, ArgumentNode::new);
+        }
+
+        private void sort()
+        {
+            final List<ArgumentNode> sorted = new ArrayList<>(children.values());
+            sorted.sort(Comparator.comparingInt((ArgumentNode node) -> -specificity(node.type))
+                                  .thenComparing(node -> node.type.getName()));
+
+            final List<ArgumentNode[]> grouped = new ArrayList<>();
+            int from = 0;
+            for (int i = 1; i <= sorted.size(); i++)
+            {
+                if (i == sorted.size() || specificity(sorted.get(i).type) != specificity(sorted.get(from).type))
+                {
+                    grouped.add(sorted.subList(from, i)
+                                      .toArray(ArgumentNode[]::new));
+                    from = i;
+                }
+            }
+
+            groups = grouped.toArray(ArgumentNode[][]::new);
+            sorted.forEach(ArgumentNode::sort);
+        }
+    }
+
+    /**
+     * The state of a single resolution.
+     */
+    private static final class Attempt
+    {
+        private final String[] args;
+        private final Object[] values;
+        private final List<Class<?>> failedTypes = new ArrayList<>();
+        private int failedIndex = -1;
+        private int parsedIndex = -1;
+        private String ambiguity;
+
+        private Attempt(final String[] args, final Object[] values)
+        {
+            this.args = args;
+            this.values = values;
+        }
+
+        /**
+         * Remembers the furthest argument which failed to parse, so the error points at the most likely mistake.
+         */
+        private void fail(final int index, final Class<?> type)
+        {
+            if (index >= args.length || index < failedIndex)
+            {
+                return;
+            }
+
+            if (index > failedIndex)
+            {
+                failedIndex = index;
+                failedTypes.clear();
+            }
+            failedTypes.add(type);
+        }
+
+        private void parsed(final int index)
+        {
+            parsedIndex = Math.max(parsedIndex, index);
+        }
+    }
+}
@@ -4,22 +4,16 @@ import fns.patchwork.command.annotation.Base;
 import fns.patchwork.command.annotation.Completion;
 import fns.patchwork.command.annotation.Info;
 import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.RateLimit;
 import fns.patchwork.command.annotation.Subcommand;
-import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Stream;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 /**
  * This is the base command class which should be extended when creating a new command. Commands must be annotated with
  * the {@link Info} and {@link Permissive} annotations in order to be properly registered with the
- * {@link CommandHandler}.
+ * {@link CommandHandler}. Commands may also be annotated with {@link RateLimit} to change how often each player may use
+ * them.
  * <p>
  * One single method can be annotated with the {@link Base} annotation to specify that method should be called when the
  * command is executed without any arguments.
@@ -31,6 +25,12 @@ import org.jetbrains.annotations.Nullable;
  * <br>
  * When creating {@link Completion} annotations, you only need to register arguments a single time per class. For more
  * information, see {@link Subcommand}.
+ * <br>
+ * All of this is read once per command class into a {@link CommandDescriptor}. Modules which run the Loom annotation
+ * processor have their descriptors generated at build time, with direct calls to each {@link Base} and
+ * {@link Subcommand} method, so creating the command does not use reflection at all; other commands are described from
+ * their annotations the first time they are created. The subcommands are then indexed by a {@link CommandRouter},
+ * which resolves the arguments of each execution to a single subcommand.
  */
 public abstract class Commander
 {
@@ -39,25 +39,13 @@ public abstract class Commander
      */
     private final JavaPlugin plugin;
     /**
-     * The {@link Info} annotation for this command.
-     */
-    private final Info info;
-    /**
-     * The {@link Permissive} annotation for this command.
-     */
-    private final Permissive perms;
-    /**
-     * A map of all subcommands and their related methods for this command.
+     * The description of this command, built from its annotations.
      */
-    private final Map<Subcommand, Method> subcommands;
+    private final CommandDescriptor descriptor;
     /**
-     * A set of all {@link Completion} annotations for this command.
+     * The routing trie which resolves arguments to a single subcommand.
      */
-    private final Set<Completion> completions;
-    /**
-     * The method which should be called when the command is executed without any arguments.
-     */
-    private final Method baseMethod;
+    private final CommandRouter router;
 
     /**
      * Initializes this command object. The provided {@link JavaPlugin} should be the plugin which contains the
@@ -70,88 +58,18 @@ public abstract class Commander
      */
     protected Commander(final @NotNull JavaPlugin plugin)
     {
-        this.info = this.getClass()
-                        .getDeclaredAnnotation(Info.class);
-        this.perms = this.getClass()
-                         .getDeclaredAnnotation(Permissive.class);
         this.plugin = plugin;
-        this.subcommands = new HashMap<>();
-        this.completions = new HashSet<>();
-
-        if (this.getClass()
-                .isAnnotationPresent(Base.class))
-        {
-            final Method method = Stream.of(this.getClass()
-                                                .getDeclaredMethods())
-                                        .filter(m -> m.isAnnotationPresent(Base.class))
-                                        .findFirst()
-                                        .orElseThrow(() -> new RuntimeException(
-                                                "Base annotation present but no method found."));
-
-            this.baseMethod = method;
-        } else
-        {
-            this.baseMethod = null;
-        }
-
-        registerAnnotations();
+        this.descriptor = CommandDescriptors.of(this.getClass());
+        this.router = new CommandRouter(this.descriptor);
     }
 
     /**
-     * Registers all subcommands and completions for this command.
-     */
-    private void registerAnnotations()
-    {
-        Stream.of(this.getClass()
-                      .getDeclaredMethods())
-              .filter(method -> method.isAnnotationPresent(Subcommand.class))
-              .forEach(method -> this.subcommands.put(
-                      method.getDeclaredAnnotation(Subcommand.class),
-                      method));
-
-        List.of(this.getClass()
-                    .getDeclaredAnnotationsByType(Completion.class))
-            .stream()
-            .forEach(completions::add);
-    }
-
-    /**
-     * Gets the method which should be called when the command is executed without any arguments.
-     * <br>
-     * This method will return null if the command does not have a base method.
-     *
-     * @return The base method for this command, or null if the command does not have a base method.
-     */
-    @Nullable
-    public Method getBaseMethod()
-    {
-        return baseMethod;
-    }
-
-    /**
-     * Gets the {@link Info} annotation for this command.
-     * <br>
-     * This method will never return null as this annotation is required for the command to be registered.
-     *
-     * @return The {@link Info} annotation for this command.
+     * @return The description of this command, built from its annotations.
      */
     @NotNull
-    Info getInfo()
+    public CommandDescriptor getDescriptor()
     {
-        return this.info;
-    }
-
-    /**
-     * Gets the {@link Permissive} annotation for this command.
-     * <br>
-     * This method will never return null as this annotation is required for the command to be registered.
-     *
-     * @return The {@link Permissive} annotation for this command.
-     */
-    @NotNull
-    Permissive getPerms()
-    {
-        return this.perms;
+        return this.descriptor;
     }
 
     /**
@@ -164,20 +82,11 @@ public abstract class Commander
     }
 
     /**
-     * @return A map of all subcommands and their related methods for this command.
+     * @return The routing trie which resolves arguments to a single subcommand.
      */
     @NotNull
-    Map<Subcommand, Method> getSubcommands()
-    {
-        return this.subcommands;
-    }
-
-    /**
-     * @return A set of all {@link Completion} annotations for this command.
-     */
-    @Nullable
-    Set<Completion> getCompletions()
+    CommandRouter getRouter()
     {
-        return this.completions;
+        return this.router;
     }
 }
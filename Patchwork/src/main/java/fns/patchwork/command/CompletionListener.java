@@ -0,0 +1,94 @@
+package fns.patchwork.command;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Completes the arguments of Patchwork commands from Paper's {@link AsyncTabCompleteEvent}, so tab completion runs on
+ * the thread which received the request instead of on the main thread.
+ * <br>
+ * Completion only reads the {@link Commander}'s completions and the {@link NameIndex}, both of which are safe to read
+ * from any thread. Requests for other plugins' commands, and for the command name itself, are left to the server.
+ * <br>
+ * When a plugin is disabled, its commands and their cached {@link CommandDescriptor}s are forgotten, so neither keeps
+ * the plugin's class loader alive.
+ */
+public final class CompletionListener implements Listener
+{
+    /**
+     * The registered commands, keyed by their names and aliases, with and without the plugin prefix.
+     */
+    private final Map<String, BukkitDelegate> commands = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a command for asynchronous completion.
+     *
+     * @param delegate The command.
+     */
+    void register(final BukkitDelegate delegate)
+    {
+        final String prefix = delegate.getPlugin()
+                                      .getName()
+                                      .toLowerCase(Locale.ROOT) + ":";
+
+        commands.put(delegate.getName()
+                             .toLowerCase(Locale.ROOT), delegate);
+        commands.put(prefix + delegate.getName()
+                                      .toLowerCase(Locale.ROOT), delegate);
+
+        for (final String alias : delegate.getAliases())
+        {
+            commands.put(alias.toLowerCase(Locale.ROOT), delegate);
+            commands.put(prefix + alias.toLowerCase(Locale.ROOT), delegate);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(final PluginDisableEvent event)
+    {
+        final Plugin plugin = event.getPlugin();
+        commands.values()
+                .removeIf(delegate -> delegate.getPlugin() == plugin);
+        CommandDescriptors.forget(plugin.getClass()
+                                        .getClassLoader());
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(final AsyncTabCompleteEvent event)
+    {
+        if (event.isHandled() || !event.isCommand())
+        {
+            return;
+        }
+
+        final String buffer = event.getBuffer()
+                                   .startsWith("/")
+                ? event.getBuffer()
+                       .substring(1)
+                : event.getBuffer();
+
+        final int space = buffer.indexOf(' ');
+        if (space < 0)
+        {
+            return;
+        }
+
+        final BukkitDelegate delegate = commands.get(buffer.substring(0, space)
+                                                           .toLowerCase(Locale.ROOT));
+        if (delegate == null || !delegate.testPermissionSilent(event.getSender()))
+        {
+            return;
+        }
+
+        event.setCompletions(delegate.complete(buffer.substring(space + 1)
+                                                     .split(" ", -1)));
+        event.setHandled(true);
+    }
+}
@@ -0,0 +1,167 @@
+package fns.patchwork.command;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * A prefix index of the names of online players and loaded worlds, used for tab completion.
+ * <br>
+ * Each set of names is kept as an array sorted without regard to case, so the names starting with a prefix are found
+ * with a binary search and are next to each other. Names which only differ in case, such as two worlds, are both kept,
+ * ordered case-sensitively. The arrays are copied on write: joins, quits and world loads
+ * replace the array, while completions read it without locking. Completions may therefore run on any thread, including
+ * the threads of Paper's asynchronous tab completion.
+ * <br>
+ * The index is seeded when it is created, and only kept up to date while it is registered as a listener.
+ */
+public final class NameIndex implements Listener
+{
+    private final SortedNames players = new SortedNames();
+    private final SortedNames worlds = new SortedNames();
+
+    /**
+     * Creates an index of the players which are online and the worlds which are loaded.
+     */
+    public NameIndex()
+    {
+        Bukkit.getOnlinePlayers()
+              .forEach(player -> players.add(player.getName()));
+        Bukkit.getWorlds()
+              .forEach(world -> worlds.add(world.getName()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(final PlayerJoinEvent event)
+    {
+        players.add(event.getPlayer()
+                         .getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(final PlayerQuitEvent event)
+    {
+        players.remove(event.getPlayer()
+                            .getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(final WorldLoadEvent event)
+    {
+        worlds.add(event.getWorld()
+                        .getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(final WorldUnloadEvent event)
+    {
+        worlds.remove(event.getWorld()
+                           .getName());
+    }
+
+    /**
+     * Adds the names of online {@link Player}s which start with the prefix, without regard to case.
+     *
+     * @param prefix  The prefix.
+     * @param limit   The largest number of names to add.
+     * @param results The list to add the names to.
+     */
+    public void completePlayers(final String prefix, final int limit, final List<String> results)
+    {
+        players.complete(prefix, limit, results);
+    }
+
+    /**
+     * Adds the names of loaded {@link World}s which start with the prefix, without regard to case.
+     *
+     * @param prefix  The prefix.
+     * @param limit   The largest number of names to add.
+     * @param results The list to add the names to.
+     */
+    public void completeWorlds(final String prefix, final int limit, final List<String> results)
+    {
+        worlds.complete(prefix, limit, results);
+    }
+
+    private static final class SortedNames
+    {
+        private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(
+                Comparator.naturalOrder());
+
+        private volatile String[] names = new String[0];
+
+        private synchronized void add(final String name)
+        {
+            final String[] current = names;
+            final int index = Arrays.binarySearch(current, name, ORDER);
+            if (index >= 0)
+            {
+                return;
+            }
+
+            final int insertion = -index - 1;
+            final String[] next = new String[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insertion);
+            next[insertion] = name;
+            System.arraycopy(current, insertion, next, insertion + 1, current.length - insertion);
+            names = next;
+        }
+
+        private synchronized void remove(final String name)
+        {
+            final String[] current = names;
+            final int index = Arrays.binarySearch(current, name, ORDER);
+            if (index < 0)
+            {
+                return;
+            }
+
+            final String[] next = new String[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, next.length - index);
+            names = next;
+        }
+
+        private void complete(final String prefix, final int limit, final List<String> results)
+        {
+            final String[] current = names;
+
+            // Find the first name which is not before the prefix without regard to case. A binary search could land on
+            // any of several names which only differ in case, so search for the lower bound instead.
+            int low = 0;
+            int high = current.length;
+            while (low < high)
+            {
+                final int middle = (low + high) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(current[middle], prefix) < 0)
+                {
+                    low = middle + 1;
+                } else
+                {
+                    high = middle;
+                }
+            }
+
+            int added = 0;
+            for (int i = low; i < current.length && added < limit; i++, added++)
+            {
+                if (!current[i].regionMatches(true, 0, prefix, 0, prefix.length()))
+                {
+                    return;
+                }
+
+                results.add(current[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package fns.patchwork.command.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * This annotation holds the rate limit for each command. Every player has their own token bucket for each command: the
+ * bucket holds up to {@link #burst()} tokens, each execution takes one token, and tokens are refilled at
+ * {@link #perSecond()} tokens per second. Executions without a token are rejected before any arguments are parsed.
+ * <p>
+ * This annotation is optional. Commands without it are limited with the default values below. Only players are rate
+ * limited; the console and command blocks are not.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit
+{
+    /**
+     * By default, this is set to <u>10</u>.
+     *
+     * @return The number of executions a player may make in quick succession.
+     */
+    int burst() default 10;
+
+    /**
+     * By default, this is set to <u>2</u>.
+     *
+     * @return The number of executions per second a player may sustain.
+     */
+    double perSecond() default 2.0;
+
+    /**
+     * By default, this is set to <u>"You are using this command too quickly."</u>
+     *
+     * @return The message to send if an execution is rejected.
+     */
+    String message() default "You are using this command too quickly.";
+}
@@ -29,6 +29,11 @@ import java.lang.annotation.Target;
  * {@code (Player, String)}, and the user executes the command with the arguments {@code /command playerName arg2 arg3},
  * the {@code String} argument will be {@code "arg2 arg3"}. This allows for us to use a String at the end of our
  * subcommand arguments to allow for the user to input a reason.
+ * <p>
+ * A subcommand may also declare a {@link #path()} of literal words which must be typed before its arguments. For
+ * example, a subcommand with the path {@code {"all"}} and the arguments {@code (String)} is run by
+ * {@code /command all on}. Subcommands with a path are preferred over subcommands whose arguments would otherwise
+ * accept the same words.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -39,6 +44,11 @@ public @interface Subcommand
      */
     String permission();
 
+    /**
+     * @return The literal words, matched without regard to case, which must precede the arguments of this subcommand.
+     */
+    String[] path() default {};
+
     /**
      * @return The arguments, as classes, to use when registering this subcommand.
      */
@@ -0,0 +1,216 @@
+package fns.patchwork.data;
+
+import fns.patchwork.provider.ArgumentParser;
+import fns.patchwork.provider.EnumParser;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A registry for {@link ArgumentParser}s, keyed by the type they produce.
+ * <br>
+ * The registry starts with parsers for the following types:
+ * <ul>
+ *     <li>String</li>
+ *     <li>Boolean</li>
+ *     <li>Double</li>
+ *     <li>Integer</li>
+ *     <li>Long</li>
+ *     <li>Float</li>
+ *     <li>Material</li>
+ *     <li>Player</li>
+ *     <li>World</li>
+ *     <li>Location</li>
+ *     <li>Component</li>
+ * </ul>
+ * Modules may register parsers for their own types, or replace the default parsers. Parsing looks up exactly one
+ * parser by type, so the number of registered parsers does not affect the cost of parsing.
+ */
+public class ArgumentParserRegistry
+{
+    /**
+     * The parsers, keyed by the type they produce.
+     */
+    private final Map<Class<?>, ArgumentParser<?>> parsers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link ArgumentParserRegistry} with the default parsers.
+     */
+    public ArgumentParserRegistry()
+    {
+        register(String.class, input -> input);
+        register(Boolean.class, ArgumentParserRegistry::parseBoolean);
+        register(Double.class, ArgumentParserRegistry::parseDouble);
+        register(Integer.class, ArgumentParserRegistry::parseInt);
+        register(Long.class, ArgumentParserRegistry::parseLong);
+        register(Float.class, ArgumentParserRegistry::parseFloat);
+        register(Material.class, materialParser());
+        register(Player.class, Bukkit::getPlayer);
+        register(World.class, Bukkit::getWorld);
+        register(Location.class, locationParser());
+        register(Component.class, Component::text);
+    }
+
+    /**
+     * Registers a parser, replacing any parser already registered for the type.
+     *
+     * @param type   The type the parser produces.
+     * @param parser The parser.
+     * @param <T>    The type the parser produces.
+     */
+    public <T> void register(@NotNull final Class<T> type, @NotNull final ArgumentParser<? extends T> parser)
+    {
+        parsers.put(type, parser);
+    }
+
+    /**
+     * Removes the parser for a type.
+     *
+     * @param type The type to remove the parser for.
+     */
+    public void unregister(@NotNull final Class<?> type)
+    {
+        parsers.remove(type);
+    }
+
+    /**
+     * Gets the parser for a type.
+     *
+     * @param type The type to get the parser for.
+     * @param <T>  The type the parser produces.
+     * @return The parser, or null if no parser is registered for the type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable ArgumentParser<? extends T> getParser(@NotNull final Class<T> type)
+    {
+        return (ArgumentParser<? extends T>) parsers.get(type);
+    }
+
+    /**
+     * Parses the input with the parser registered for a type.
+     *
+     * @param input The input to parse.
+     * @param type  The type to parse the input as.
+     * @param <T>   The type to parse the input as.
+     * @return The parsed object, or null if no parser is registered for the type or the input is not valid.
+     */
+    public <T> @Nullable T parse(@NotNull final String input, @NotNull final Class<T> type)
+    {
+        final ArgumentParser<? extends T> parser = getParser(type);
+        return parser == null
+                ? null
+                : parser.parse(input);
+    }
+
+    private static @Nullable Boolean parseBoolean(final String input)
+    {
+        // Boolean#parseBoolean returns false for anything other than "true", so invalid input would not be reported.
+        if (input.equalsIgnoreCase("true"))
+            return true;
+        if (input.equalsIgnoreCase("false"))
+            return false;
+
+        return null;
+    }
+
+    private static @Nullable Double parseDouble(final String input)
+    {
+        try
+        {
+            return Double.parseDouble(input);
+        }
+        catch (NumberFormatException ignored)
+        {
+            return null;
+        }
+    }
+
+    private static @Nullable Integer parseInt(final String input)
+    {
+        try
+        {
+            return Integer.parseInt(input);
+        }
+        catch (NumberFormatException ignored)
+        {
+            return null;
+        }
+    }
+
+    private static @Nullable Long parseLong(final String input)
+    {
+        try
+        {
+            return Long.parseLong(input);
+        }
+        catch (NumberFormatException ignored)
+        {
+            return null;
+        }
+    }
+
+    private static @Nullable Float parseFloat(final String input)
+    {
+        try
+        {
+            return Float.parseFloat(input);
+        }
+        catch (NumberFormatException ignored)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Materials are looked up from a cached index of every non-legacy material, with or without the
+     * {@code minecraft:} namespace, like {@link Material#matchMaterial(String)}.
+     */
+    private static ArgumentParser<Material> materialParser()
+    {
+        final EnumParser<Material> materials = new EnumParser<>(Material.class,
+                                                                material -> !material.name()
+                                                                                     .startsWith("LEGACY_"));
+        return input -> materials.parse(input.startsWith("minecraft:")
+                                                ? input.substring("minecraft:".length())
+                                                : input);
+    }
+
+    /**
+     * Locations are parsed from four arguments: a world name, followed by the x, y and z coordinates.
+     */
+    private static ArgumentParser<Location> locationParser()
+    {
+        return new ArgumentParser<>()
+        {
+            @Override
+            public @Nullable Location parse(@NotNull final String input)
+            {
+                final String[] split = input.split(" ");
+                if (split.length != 4)
+                    return null;
+
+                final World world = Bukkit.getWorld(split[0]);
+                final Double x = parseDouble(split[1]);
+                final Double y = parseDouble(split[2]);
+                final Double z = parseDouble(split[3]);
+                if (world == null || x == null || y == null || z == null)
+                    return null;
+
+                return new Location(world, x, y, z);
+            }
+
+            @Override
+            public int width()
+            {
+                return 4;
+            }
+        };
+    }
+}
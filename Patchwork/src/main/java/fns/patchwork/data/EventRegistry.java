@@ -2,8 +2,8 @@ package fns.patchwork.data;
 
 import fns.patchwork.event.FEvent;
 import fns.patchwork.provider.EventProvider;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A registry for {@link FEvent}s.
@@ -11,26 +11,26 @@ import java.util.List;
 public class EventRegistry
 {
     /**
-     * The list of events.
+     * The registered events, keyed by their event class.
      */
-    private final List<FEvent> events;
+    private final Map<Class<? extends FEvent>, FEvent> events;
 
     /**
      * Creates a new event registry.
      */
     public EventRegistry()
     {
-        this.events = new ArrayList<>();
+        this.events = new ConcurrentHashMap<>();
     }
 
     /**
-     * Registers an event.
+     * Registers an event. If an event of the same class is already registered, the existing event is kept.
      *
      * @param event The event to register.
      */
     public void register(final FEvent event)
     {
-        this.events.add(event);
+        this.events.putIfAbsent(event.getEventClass(), event);
     }
 
     /**
@@ -40,11 +40,14 @@ public class EventRegistry
      */
     public void unregister(final FEvent event)
     {
-        this.events.remove(event);
+        this.events.remove(event.getEventClass(), event);
     }
 
     /**
      * Gets an {@link EventProvider} for the specified event class which contains the actual {@link FEvent} instance.
+     * <br>
+     * Events are looked up by their exact event class first. If no event is registered under that class, the registry
+     * falls back to searching for an event which is an instance of the class.
      *
      * @param clazz The event class.
      * @param <T>   The event type.
@@ -52,7 +55,13 @@ public class EventRegistry
      */
     public <T extends FEvent> EventProvider<T> getEvent(final Class<T> clazz)
     {
-        for (final FEvent event : this.events)
+        final FEvent exact = this.events.get(clazz);
+        if (exact != null)
+        {
+            return () -> clazz.cast(exact);
+        }
+
+        for (final FEvent event : this.events.values())
         {
             if (clazz.isInstance(event))
             {
@@ -2,25 +2,44 @@ package fns.patchwork.data;
 
 import fns.patchwork.security.Group;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * A registry for {@link Group}s.
+ * <br>
+ * Lookups are served from an immutable {@link Snapshot} which indexes every group by its plain text name (case
+ * insensitive) and by its {@link UUID}, and keeps a copy of the groups sorted by weight. Registration is copy-on-write:
+ * every change builds a new snapshot and publishes it atomically, so reads never lock and never observe a partially
+ * updated registry.
  */
 public class GroupRegistry
 {
     /**
-     * The list of groups.
+     * Orders groups from the highest weight to the lowest weight.
      */
-    private final List<Group> groups;
+    private static final Comparator<Group> BY_WEIGHT = Comparator.comparingInt(Group::getWeight)
+                                                                 .reversed();
+
+    /**
+     * The current snapshot of registered groups.
+     */
+    private volatile Snapshot snapshot;
 
     /**
      * Creates a new group registry.
      */
     public GroupRegistry()
     {
-        this.groups = new ArrayList<>();
+        this.snapshot = Snapshot.of(List.of());
     }
 
     /**
@@ -29,9 +48,17 @@ public class GroupRegistry
      * @param group The group to register.
      * @return {@code true} if the group was registered, {@code false} otherwise.
      */
-    public boolean registerGroup(final Group group)
+    public synchronized boolean registerGroup(final Group group)
     {
-        return groups.add(group);
+        final List<Group> groups = new ArrayList<>(snapshot.groups());
+        if (groups.contains(group))
+        {
+            return false;
+        }
+
+        groups.add(group);
+        this.snapshot = Snapshot.of(groups);
+        return true;
     }
 
     /**
@@ -40,36 +67,123 @@ public class GroupRegistry
      * @param group The group to unregister.
      * @return {@code true} if the group was unregistered, {@code false} otherwise.
      */
-    public boolean unregisterGroup(final Group group)
+    public synchronized boolean unregisterGroup(final Group group)
     {
-        return groups.remove(group);
+        final List<Group> groups = new ArrayList<>(snapshot.groups());
+        if (!groups.remove(group))
+        {
+            return false;
+        }
+
+        this.snapshot = Snapshot.of(groups);
+        return true;
     }
 
     /**
-     * Gets a group by name.
+     * Gets a group by name. The name is matched against the plain text representation of {@link Group#getName()},
+     * ignoring case.
      *
      * @param name The name of the group.
      * @return The group, or {@code null} if no group was found.
      */
+    @Nullable
     public Group getGroup(final String name)
     {
-        final PlainTextComponentSerializer s = PlainTextComponentSerializer.plainText();
-        for (final Group group : groups)
+        if (name == null)
         {
-            final String n = s.serialize(group.getName());
-            if (n.equalsIgnoreCase(name))
-            {
-                return group;
-            }
+            return null;
         }
-        return null;
+
+        return snapshot.byName()
+                       .get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets a group by its unique id.
+     *
+     * @param uuid The {@link UUID} of the group.
+     * @return The group, or {@code null} if no group was found.
+     * @see Group#getUniqueId()
+     */
+    @Nullable
+    public Group getGroup(final UUID uuid)
+    {
+        return snapshot.byId()
+                       .get(uuid);
+    }
+
+    /**
+     * Gets the default group. If more than one group is marked as default, the one which was registered first is
+     * returned.
+     *
+     * @return The default group, or {@code null} if no group is marked as default.
+     */
+    @Nullable
+    public Group getDefaultGroup()
+    {
+        return snapshot.defaultGroup();
     }
 
     /**
-     * @return The list of groups.
+     * @return An immutable list of every group, sorted from the highest weight to the lowest weight.
      */
+    @NotNull
+    public List<Group> getGroupsByWeight()
+    {
+        return snapshot.byWeight();
+    }
+
+    /**
+     * @return An immutable list of the groups, in registration order.
+     */
+    @NotNull
     public List<Group> getGroups()
     {
-        return groups;
+        return snapshot.groups();
+    }
+
+    /**
+     * An immutable view of the registered groups, along with the indexes used for lookups.
+     *
+     * @param groups       The groups in registration order.
+     * @param byWeight     The groups sorted from the highest weight to the lowest weight.
+     * @param byName       The groups keyed by their lower case plain text name.
+     * @param byId         The groups keyed by their unique id.
+     * @param defaultGroup The first registered default group, or {@code null} if there is none.
+     */
+    private record Snapshot(List<Group> groups,
+                            List<Group> byWeight,
+                            Map<String, Group> byName,
+                            Map<UUID, Group> byId,
+                            @Nullable Group defaultGroup)
+    {
+        static Snapshot of(final List<Group> groups)
+        {
+            final PlainTextComponentSerializer serializer = PlainTextComponentSerializer.plainText();
+            final Map<String, Group> byName = new HashMap<>();
+            final Map<UUID, Group> byId = new HashMap<>();
+            Group defaultGroup = null;
+
+            for (final Group group : groups)
+            {
+                byName.putIfAbsent(serializer.serialize(group.getName())
+                                             .toLowerCase(Locale.ROOT), group);
+                byId.putIfAbsent(group.getUniqueId(), group);
+
+                if (defaultGroup == null && group.isDefault())
+                {
+                    defaultGroup = group;
+                }
+            }
+
+            final Group[] sorted = groups.toArray(new Group[0]);
+            Arrays.sort(sorted, BY_WEIGHT);
+
+            return new Snapshot(List.copyOf(groups),
+                                List.of(sorted),
+                                Map.copyOf(byName),
+                                Map.copyOf(byId),
+                                defaultGroup);
+        }
     }
 }
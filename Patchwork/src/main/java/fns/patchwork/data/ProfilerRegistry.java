@@ -0,0 +1,66 @@
+package fns.patchwork.data;
+
+import fns.patchwork.service.ProfileSnapshot;
+import fns.patchwork.service.Service;
+import fns.patchwork.service.Task;
+import fns.patchwork.service.TickProfile;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry for the {@link TickProfile} of every {@link Service} and {@link Task}.
+ * <br>
+ * Profiles are created when a service or task is started, and are keyed by their kind and name, so a service which is
+ * restarted keeps adding to the same profile.
+ */
+public class ProfilerRegistry
+{
+    /**
+     * The profiles, keyed by kind and name.
+     */
+    private final Map<String, TickProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the profile for the provided service or task, creating it if it does not exist yet.
+     *
+     * @param kind   The kind of work to profile.
+     * @param name   The name of the service or task.
+     * @param budget The duration after which a run is counted as an overrun.
+     * @return The profile.
+     */
+    public TickProfile getProfile(final TickProfile.Kind kind, final String name, final Duration budget)
+    {
+        return profiles.computeIfAbsent(kind + ":" + name, k -> new TickProfile(kind, name, budget));
+    }
+
+    /**
+     * @return A snapshot of every profile, sorted by total time with the most expensive first.
+     */
+    public List<ProfileSnapshot> getSnapshots()
+    {
+        final List<ProfileSnapshot> snapshots = new ArrayList<>(profiles.size());
+        for (final TickProfile profile : profiles.values())
+        {
+            snapshots.add(profile.snapshot());
+        }
+
+        snapshots.sort(Comparator.comparingLong(ProfileSnapshot::totalNanos)
+                                 .reversed());
+        return snapshots;
+    }
+
+    /**
+     * Clears the recorded runs of every profile.
+     */
+    public void reset()
+    {
+        for (final TickProfile profile : profiles.values())
+        {
+            profile.reset();
+        }
+    }
+}
@@ -3,25 +3,45 @@ package fns.patchwork.data;
 import fns.patchwork.service.Service;
 import fns.patchwork.service.ServiceSubscription;
 import fns.patchwork.service.SubscriptionProvider;
+import fns.patchwork.service.SubscriptionState;
 import fns.patchwork.service.Task;
 import fns.patchwork.service.TaskSubscription;
+import fns.patchwork.utils.logging.FreedomLogger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * A registry for all services and tasks registered with Patchwork.
  * <br>
- * This class is <b>not</b> thread-safe, and should only be accessed from the main server thread.
+ * This class is thread-safe. Services and tasks are indexed in concurrent maps by the class of the service or task, and
+ * by its name, so lookups never scan the registry, and modules may register concurrently.
  * <br>
  * <br>
  * <b>Services</b> are tickable tasks which execute every single game tick. They are registered using
- * {@link #registerService(ServiceSubscription)} and can be started using {@link #startService(Class)}.
+ * {@link #registerService(ServiceSubscription, Class[])} and can be started using {@link #startService(Class)}.
  * <br>
  * <br>
  * <b>Tasks</b> are runnable tasks which execute at the provided times in the {@link Task} and
  * {@link TaskSubscription} classes. These define whether the Task is repeating, delayed, or just a one-time task. Tasks
- * are registered using {@link #registerTask(TaskSubscription)} and can be started using {@link #startTask(Class)}.
+ * are registered using {@link #registerTask(TaskSubscription, Class[])} and can be started using
+ * {@link #startTask(Class)}.
+ * <br>
+ * <br>
+ * Every registration tracks its {@link SubscriptionState}. State changes are atomic: starting a service which is
+ * already running, or stopping one which is not, does nothing. A registration may also name the services or tasks it
+ * depends on. The bulk start methods start dependencies first, and the bulk stop methods stop dependents first.
  * <br>
  * <br>
  * <b>ServiceSubscriptions</b> and <b>TaskSubscriptions</b> can both be easily obtained using the
@@ -36,26 +56,18 @@ import org.jetbrains.annotations.Nullable;
 public class ServiceTaskRegistry
 {
     /**
-     * A list of all services registered with the registry.
+     * The services registered with the registry.
      */
-    private final List<ServiceSubscription<?>> services;
-    /**
-     * A list of all tasks registered with the registry.
-     */
-    private final List<TaskSubscription<?>> tasks;
-
+    private final Index<ServiceSubscription<?>> services = new Index<>(ServiceSubscription::start,
+                                                                       ServiceSubscription::stop);
     /**
-     * Creates a new instance of the registry and initializes the service and task lists to new empty
-     * {@link ArrayList}s.
+     * The tasks registered with the registry.
      */
-    public ServiceTaskRegistry()
-    {
-        this.services = new ArrayList<>();
-        this.tasks = new ArrayList<>();
-    }
+    private final Index<TaskSubscription<?>> tasks = new Index<>(TaskSubscription::start, TaskSubscription::stop);
 
     /**
-     * Starts all services registered with the registry.
+     * Starts all services registered with the registry which are not already running, starting the dependencies of
+     * each service before the service itself.
      * <br>
      * This method should be <i>avoided</i>, due to the fact that <b><i>modules may have registered their services after
      * this method has already been called.</i></b> In this case, it is preferred to start each service using
@@ -68,14 +80,12 @@ public class ServiceTaskRegistry
      */
     public void startAllServices()
     {
-        for (final ServiceSubscription<?> service : this.services)
-        {
-            service.start();
-        }
+        services.startAll();
     }
 
     /**
-     * Starts all tasks registered with the registry.
+     * Starts all tasks registered with the registry which are not already running, starting the dependencies of each
+     * task before the task itself.
      * <br>
      * This method should be <i>avoided</i>, due to the fact that <b><i>modules may have registered their tasks after
      * this method has already been called.</i></b> In this case, it is preferred to start each task using
@@ -88,14 +98,11 @@ public class ServiceTaskRegistry
      */
     public void startAllTasks()
     {
-        for (final TaskSubscription<?> task : this.tasks)
-        {
-            task.start();
-        }
+        tasks.startAll();
     }
 
     /**
-     * Stops all services registered with the registry.
+     * Stops all running services registered with the registry, stopping each service before its dependencies.
      * <br>
      * This method should be <i>avoided</i>, due to the fact that <b><i>modules should be handling their own
      * registrations</i></b>. It is preferred to use {@link #stopService(Class)} for each service you would like to
@@ -108,14 +115,11 @@ public class ServiceTaskRegistry
      */
     public void stopAllServices()
     {
-        for (final ServiceSubscription<?> service : this.services)
-        {
-            service.stop();
-        }
+        services.stopAll();
     }
 
     /**
-     * Stops all tasks registered with the registry.
+     * Stops all running tasks registered with the registry, stopping each task before its dependencies.
      * <br>
      * This method should be <i>avoided</i>, due to the fact that <b><i>modules should be handling their own
      * registrations</i></b>. It is preferred to use {@link #stopTask(Class)} for each task you would like to stop.
@@ -127,10 +131,7 @@ public class ServiceTaskRegistry
      */
     public void stopAllTasks()
     {
-        for (final TaskSubscription<?> task : this.tasks)
-        {
-            task.stop();
-        }
+        tasks.stopAll();
     }
 
     /**
@@ -139,12 +140,18 @@ public class ServiceTaskRegistry
      * <i>Services must be registered using <b>ServiceSubscriptions</b></i>, which can be easily obtained through the
      * {@link SubscriptionProvider} utility class.
      *
-     * @param service The service you are trying to register.
-     * @param <T>     A generic type for type inference of the service being registered.
+     * @param service   The service you are trying to register.
+     * @param dependsOn The classes of the services which must be started before this service.
+     * @param <T>       A generic type for type inference of the service being registered.
+     * @return True if the service was registered, false if a service of the same class or name is already registered.
      */
-    public <T extends Service> void registerService(final ServiceSubscription<T> service)
+    @SafeVarargs
+    public final <T extends Service> boolean registerService(final ServiceSubscription<T> service,
+                                                            final Class<? extends Service>... dependsOn)
     {
-        this.services.add(service);
+        return services.register(service, service.getService()
+                                                  .getClass(), service.getService()
+                                                                      .getName(), dependsOn);
     }
 
     /**
@@ -153,12 +160,18 @@ public class ServiceTaskRegistry
      * <i>Tasks must be registered using <b>TaskSubscriptions</b></i>, which can be easily obtained through the
      * {@link SubscriptionProvider} utility class.
      *
-     * @param task The task you are trying to register.
-     * @param <T>  A generic type for type inference of the task being registered.
+     * @param task      The task you are trying to register.
+     * @param dependsOn The classes of the tasks which must be started before this task.
+     * @param <T>       A generic type for type inference of the task being registered.
+     * @return True if the task was registered, false if a task of the same class or name is already registered.
      */
-    public <T extends Task> void registerTask(final TaskSubscription<T> task)
+    @SafeVarargs
+    public final <T extends Task> boolean registerTask(final TaskSubscription<T> task,
+                                                      final Class<? extends Task>... dependsOn)
     {
-        this.tasks.add(task);
+        return tasks.register(task, task.getTask()
+                                        .getClass(), task.getTask()
+                                                         .getName(), dependsOn);
     }
 
     /**
@@ -167,13 +180,13 @@ public class ServiceTaskRegistry
      * <i>The service should already be registered with the registry as a <b>ServiceSubscription</b></i>.
      *
      * @param clazz The class of the service you are trying to start.
+     * @return True if the service was started, false if it is not registered or is already running.
      * @see ServiceSubscription
-     * @see #registerService(ServiceSubscription)
+     * @see #registerService(ServiceSubscription, Class[])
      */
-    public void startService(final Class<? extends Service> clazz)
+    public boolean startService(final Class<? extends Service> clazz)
     {
-        this.getService(clazz)
-            .start();
+        return services.start(clazz);
     }
 
     /**
@@ -187,22 +200,38 @@ public class ServiceTaskRegistry
      * @param clazz The class of the service you are trying to locate.
      * @param <T>   A generic type for type inference of the service requested.
      * @return The {@link ServiceSubscription} for the specified class, or null if it could not be found.
-     * @see #registerService(ServiceSubscription)
+     * @see #registerService(ServiceSubscription, Class[])
      * @see ServiceSubscription
      */
     @Nullable
+    @SuppressWarnings("unchecked")
     public <T extends Service> ServiceSubscription<T> getService(final Class<T> clazz)
     {
-        for (final ServiceSubscription<?> service : this.services)
-        {
-            if (service.getService()
-                       .getClass()
-                       .equals(clazz))
-            {
-                return (ServiceSubscription<T>) service;
-            }
-        }
-        return null;
+        return (ServiceSubscription<T>) services.get(clazz);
+    }
+
+    /**
+     * Gets a {@link ServiceSubscription} from the registry using the name of the service.
+     *
+     * @param name The name of the service, as returned by {@link Service#getName()}.
+     * @return The {@link ServiceSubscription} for the specified name, or null if it could not be found.
+     */
+    @Nullable
+    public ServiceSubscription<?> getService(final String name)
+    {
+        return services.get(name);
+    }
+
+    /**
+     * Gets the state of a service using the specified {@link Service} class.
+     *
+     * @param clazz The class of the service.
+     * @return The state of the service, or null if it is not registered.
+     */
+    @Nullable
+    public SubscriptionState getServiceState(final Class<? extends Service> clazz)
+    {
+        return services.getState(clazz);
     }
 
     /**
@@ -211,13 +240,13 @@ public class ServiceTaskRegistry
      * <i>The service should already be registered with the registry as a <b>ServiceSubscription</b></i>.
      *
      * @param clazz The class of the service you are trying to stop.
-     * @see #registerService(ServiceSubscription)
+     * @return True if the service was stopped, false if it is not registered or is not running.
+     * @see #registerService(ServiceSubscription, Class[])
      * @see ServiceSubscription
      */
-    public void stopService(final Class<? extends Service> clazz)
+    public boolean stopService(final Class<? extends Service> clazz)
     {
-        this.getService(clazz)
-            .stop();
+        return services.stop(clazz);
     }
 
     /**
@@ -226,13 +255,13 @@ public class ServiceTaskRegistry
      * <i>The task should already be registered with the registry as a <b>TaskSubscription</b></i>.
      *
      * @param clazz The class of the task you are trying to start.
-     * @see #registerTask(TaskSubscription)
+     * @return True if the task was started, false if it is not registered or is already running.
+     * @see #registerTask(TaskSubscription, Class[])
      * @see TaskSubscription
      */
-    public void startTask(final Class<? extends Task> clazz)
+    public boolean startTask(final Class<? extends Task> clazz)
     {
-        this.getTask(clazz)
-            .start();
+        return tasks.start(clazz);
     }
 
     /**
@@ -246,21 +275,38 @@ public class ServiceTaskRegistry
      * @param clazz The class of the task you are trying to locate.
      * @param <T>   A generic type for type inference of the task requested.
      * @return The {@link TaskSubscription} for the specified class, or null if it could not be found.
-     * @see #registerTask(TaskSubscription)
+     * @see #registerTask(TaskSubscription, Class[])
      * @see TaskSubscription
      */
+    @Nullable
+    @SuppressWarnings("unchecked")
     public <T extends Task> TaskSubscription<T> getTask(final Class<T> clazz)
     {
-        for (final TaskSubscription<?> task : this.tasks)
-        {
-            if (task.getTask()
-                    .getClass()
-                    .equals(clazz))
-            {
-                return (TaskSubscription<T>) task;
-            }
-        }
-        return null;
+        return (TaskSubscription<T>) tasks.get(clazz);
+    }
+
+    /**
+     * Gets a {@link TaskSubscription} from the registry using the name of the task.
+     *
+     * @param name The name of the task, as returned by {@link Task#getName()}.
+     * @return The {@link TaskSubscription} for the specified name, or null if it could not be found.
+     */
+    @Nullable
+    public TaskSubscription<?> getTask(final String name)
+    {
+        return tasks.get(name);
+    }
+
+    /**
+     * Gets the state of a task using the specified {@link Task} class.
+     *
+     * @param clazz The class of the task.
+     * @return The state of the task, or null if it is not registered.
+     */
+    @Nullable
+    public SubscriptionState getTaskState(final Class<? extends Task> clazz)
+    {
+        return tasks.getState(clazz);
     }
 
     /**
@@ -269,40 +315,286 @@ public class ServiceTaskRegistry
      * <i>The task should already be registered with the registry as a <b>TaskSubscription</b></i>.
      *
      * @param clazz The class of the task you are trying to stop.
-     * @see #registerTask(TaskSubscription)
+     * @return True if the task was stopped, false if it is not registered or is not running.
+     * @see #registerTask(TaskSubscription, Class[])
      * @see TaskSubscription
      */
-    public void stopTask(final Class<? extends Task> clazz)
+    public boolean stopTask(final Class<? extends Task> clazz)
     {
-        this.getTask(clazz)
-            .stop();
+        return tasks.stop(clazz);
     }
 
     /**
-     * Unregisters a service from the registry.
+     * Unregisters a service from the registry. The service is not stopped.
      * <br>
      * <i>The service should have been registered previously as a <b>ServiceSubscription</b></i>.
      *
      * @param clazz The service you are trying to unregister.
-     * @see #registerService(ServiceSubscription)
+     * @return True if the service was unregistered, false if it was not registered.
+     * @see #registerService(ServiceSubscription, Class[])
      * @see ServiceSubscription
      */
-    public void unregisterService(final Class<? extends Service> clazz)
+    public boolean unregisterService(final Class<? extends Service> clazz)
     {
-        this.services.remove(getService(clazz));
+        return services.unregister(clazz);
     }
 
     /**
-     * Unregisters a task from the registry.
+     * Unregisters a task from the registry. The task is not stopped.
      * <br>
      * <i>The task should have been registered previously as a <b>TaskSubscription</b></i>.
      *
      * @param clazz The task you are trying to unregister.
-     * @see #registerTask(TaskSubscription)
+     * @return True if the task was unregistered, false if it was not registered.
+     * @see #registerTask(TaskSubscription, Class[])
      * @see TaskSubscription
      */
-    public void unregisterTask(final Class<? extends Task> clazz)
+    public boolean unregisterTask(final Class<? extends Task> clazz)
+    {
+        return tasks.unregister(clazz);
+    }
+
+    /**
+     * A registration, along with its state and dependencies.
+     *
+     * @param <S> The subscription type.
+     */
+    private static final class Entry<S>
+    {
+        private final S subscription;
+        private final Class<?> type;
+        private final String name;
+        private final Set<Class<?>> dependsOn;
+        private final long order;
+        private final AtomicReference<SubscriptionState> state =
+                new AtomicReference<>(SubscriptionState.REGISTERED);
+
+        private Entry(final S subscription, final Class<?> type, final String name, final Set<Class<?>> dependsOn,
+                      final long order)
+        {
+            this.subscription = subscription;
+            this.type = type;
+            this.name = name;
+            this.dependsOn = dependsOn;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Indexes one kind of subscription by class and by name, and implements the state transitions and the dependency
+     * ordering shared by services and tasks.
+     *
+     * @param <S> The subscription type.
+     */
+    private static final class Index<S>
     {
-        this.tasks.remove(getTask(clazz));
+        private final Map<Class<?>, Entry<S>> byClass = new ConcurrentHashMap<>();
+        private final Map<String, Entry<S>> byName = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong(0L);
+        private final Consumer<S> starter;
+        private final Consumer<S> stopper;
+
+        private Index(final Consumer<S> starter, final Consumer<S> stopper)
+        {
+            this.starter = starter;
+            this.stopper = stopper;
+        }
+
+        private boolean register(final S subscription, final Class<?> type, final String name,
+                                 final Class<?>[] dependsOn)
+        {
+            // Set.copyOf ignores a dependency which is listed more than once, where Set.of would throw.
+            final Entry<S> entry = new Entry<>(subscription, type, name, Set.copyOf(Arrays.asList(dependsOn)),
+                                               sequence.getAndIncrement());
+
+            if (byClass.putIfAbsent(type, entry) != null)
+            {
+                return false;
+            }
+
+            if (byName.putIfAbsent(name, entry) != null)
+            {
+                byClass.remove(type, entry);
+                return false;
+            }
+
+            return true;
+        }
+
+        private boolean unregister(final Class<?> type)
+        {
+            final Entry<S> entry = byClass.remove(type);
+            if (entry == null)
+            {
+                return false;
+            }
+
+            byName.remove(entry.name, entry);
+            return true;
+        }
+
+        @Nullable
+        private S get(final Class<?> type)
+        {
+            final Entry<S> entry = byClass.get(type);
+            return entry == null
+                    ? null
+                    : entry.subscription;
+        }
+
+        @Nullable
+        private S get(final String name)
+        {
+            final Entry<S> entry = byName.get(name);
+            return entry == null
+                    ? null
+                    : entry.subscription;
+        }
+
+        @Nullable
+        private SubscriptionState getState(final Class<?> type)
+        {
+            final Entry<S> entry = byClass.get(type);
+            return entry == null
+                    ? null
+                    : entry.state.get();
+        }
+
+        private boolean start(final Class<?> type)
+        {
+            final Entry<S> entry = byClass.get(type);
+            return entry != null && start(entry);
+        }
+
+        private boolean stop(final Class<?> type)
+        {
+            final Entry<S> entry = byClass.get(type);
+            return entry != null && stop(entry);
+        }
+
+        private boolean start(final Entry<S> entry)
+        {
+            final SubscriptionState previous;
+            if (entry.state.compareAndSet(SubscriptionState.REGISTERED, SubscriptionState.RUNNING))
+            {
+                previous = SubscriptionState.REGISTERED;
+            } else if (entry.state.compareAndSet(SubscriptionState.STOPPED, SubscriptionState.RUNNING))
+            {
+                previous = SubscriptionState.STOPPED;
+            } else
+            {
+                return false;
+            }
+
+            return transition(entry, starter, SubscriptionState.RUNNING, previous);
+        }
+
+        private boolean stop(final Entry<S> entry)
+        {
+            if (!entry.state.compareAndSet(SubscriptionState.RUNNING, SubscriptionState.STOPPED))
+            {
+                return false;
+            }
+
+            return transition(entry, stopper, SubscriptionState.STOPPED, SubscriptionState.RUNNING);
+        }
+
+        /**
+         * Applies a starter or stopper to an entry whose state has already been moved to the target state. If it
+         * throws, the state is rolled back, so the entry can be started or stopped again.
+         */
+        private boolean transition(final Entry<S> entry, final Consumer<S> action, final SubscriptionState target,
+                                   final SubscriptionState previous)
+        {
+            try
+            {
+                action.accept(entry.subscription);
+                return true;
+            }
+            catch (RuntimeException ex)
+            {
+                entry.state.compareAndSet(target, previous);
+                throw ex;
+            }
+        }
+
+        private void startAll()
+        {
+            for (final Entry<S> entry : dependencyOrder())
+            {
+                start(entry);
+            }
+        }
+
+        private void stopAll()
+        {
+            final List<Entry<S>> ordered = dependencyOrder();
+            for (int i = ordered.size() - 1; i >= 0; i--)
+            {
+                stop(ordered.get(i));
+            }
+        }
+
+        /**
+         * Sorts the registrations so every registration comes after the registrations it depends on. Registrations
+         * which do not depend on each other keep their registration order. Dependencies which are not registered are
+         * ignored, and registrations which are part of a dependency cycle are appended in registration order.
+         */
+        private List<Entry<S>> dependencyOrder()
+        {
+            final List<Entry<S>> pending = new ArrayList<>(byClass.values());
+            pending.sort(Comparator.comparingLong(e -> e.order));
+
+            final Map<Class<?>, Entry<S>> registered = new HashMap<>();
+            for (final Entry<S> entry : pending)
+            {
+                registered.put(entry.type, entry);
+            }
+
+            final List<Entry<S>> ordered = new ArrayList<>(pending.size());
+            final Set<Class<?>> placed = new HashSet<>();
+            boolean progress = true;
+
+            while (!pending.isEmpty() && progress)
+            {
+                progress = false;
+                for (final var iterator = pending.iterator(); iterator.hasNext(); )
+                {
+                    final Entry<S> entry = iterator.next();
+                    if (isSatisfied(entry.dependsOn, registered.keySet(), placed))
+                    {
+                        ordered.add(entry);
+                        placed.add(entry.type);
+                        iterator.remove();
+                        progress = true;
+                    }
+                }
+            }
+
+            if (!pending.isEmpty())
+            {
+                FreedomLogger.getLogger("Patchwork")
+                             .warn("Dependency cycle between " + pending.stream()
+                                                                        .map(e -> e.name)
+                                                                        .toList()
+                                           + "; they will be started in registration order.");
+                ordered.addAll(pending);
+            }
+
+            return ordered;
+        }
+
+        private static boolean isSatisfied(final Set<Class<?>> dependsOn, final Collection<Class<?>> registered,
+                                           final Set<Class<?>> placed)
+        {
+            for (final Class<?> dependency : dependsOn)
+            {
+                if (registered.contains(dependency) && !placed.contains(dependency))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 }
@@ -153,6 +153,16 @@ public class BossBarDisplay
         else this.bossBar.progress(newProgress);
     }
 
+    /**
+     * Sets the Bar's progress to the specified amount. This must be a range from 0 to 100.
+     *
+     * @param progress The new progress.
+     */
+    public void setProgress(final @Range(from = 0, to = 100) float progress)
+    {
+        this.bossBar.progress(Math.max(0.0F, Math.min(1.0F, progress / 100.0F)));
+    }
+
     /**
      * Sets the Bar's progress to the maximum amount (full bar).
      */
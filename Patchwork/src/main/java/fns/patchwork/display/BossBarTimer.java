@@ -1,14 +1,26 @@
 package fns.patchwork.display;
 
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.base.Shortcuts;
+import fns.patchwork.service.LoadGovernor;
 import fns.patchwork.service.Task;
 import java.time.Duration;
 import org.bukkit.Bukkit;
 
+/**
+ * Fills a {@link BossBarDisplay} over the given duration, then hides it.
+ * <br>
+ * The timer is cosmetic: while the {@link LoadGovernor} reports load, some or all of the progress updates are skipped.
+ * Each update sets the bar to the fraction of the duration which has passed since the timer was created, so skipped
+ * updates neither slow the timer down nor change where the bar ends up, and the bar is always hidden once the duration
+ * has passed.
+ */
 public class BossBarTimer extends Task
 {
     private final BossBarDisplay bossBarDisplay;
     private final Duration duration;
-    private double seconds = 0;
+    private final long startedAt = System.nanoTime();
+    private long runs = 0L;
 
     public BossBarTimer(final BossBarDisplay bossBarDisplay, final Duration duration)
     {
@@ -24,6 +36,9 @@ public class BossBarTimer extends Task
     {
         if (this.isCancelled()) return;
 
+        final long seconds = Duration.ofNanos(System.nanoTime() - startedAt)
+                                     .getSeconds();
+
         if (seconds >= duration.getSeconds())
         {
             bossBarDisplay.hideFrom(Bukkit.getServer());
@@ -31,8 +46,16 @@ public class BossBarTimer extends Task
             return;
         }
 
-        final float percentage = (float) (seconds / duration.getSeconds()) * 100L;
-        bossBarDisplay.incrementProgress(percentage);
-        seconds++;
+        if (!Shortcuts.provideModule(Patchwork.class)
+                      .getTickLoop()
+                      .getGovernor()
+                      .getLevel()
+                      .admits(runs++))
+        {
+            return;
+        }
+
+        final float percentage = (float) seconds / duration.getSeconds() * 100L;
+        bossBarDisplay.setProgress(percentage);
     }
 }
@@ -3,7 +3,6 @@ package fns.patchwork.display.adminchat;
 import fns.patchwork.base.Patchwork;
 import fns.patchwork.base.Registration;
 import fns.patchwork.base.Shortcuts;
-import fns.patchwork.security.Groups;
 import fns.patchwork.user.UserData;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import java.util.HashMap;
@@ -83,15 +82,19 @@ public class AdminChatDisplay
 
     public void adminChatMessage(final CommandSender sender, final Component message)
     {
+        final String rank = Shortcuts.provideModule(Patchwork.class)
+                                     .getRankResolver()
+                                     .getRankName(sender);
+
         Bukkit.getOnlinePlayers()
               .forEach(player ->
               {
                   if (player.hasPermission(ACPERM))
                   {
-                      final Component formatted = Component.empty();
-                      formatted.append(getFormat(player).format(sender.getName(), Groups.fromSender(sender)))
-                               .append(Component.space())
-                               .append(message);
+                      final Component formatted = Component.empty()
+                                                           .append(getFormat(player).format(sender.getName(), rank))
+                                                           .append(Component.space())
+                                                           .append(message);
 
                       player.sendMessage(formatted);
                   }
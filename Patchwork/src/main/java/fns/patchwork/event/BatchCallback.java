@@ -0,0 +1,17 @@
+package fns.patchwork.event;
+
+import java.util.List;
+
+/**
+ * A callback which receives every event published to a channel since the previous bus tick, in publishing order.
+ * <br>
+ * The list is only valid for the duration of the call, as the bus reuses it for the next tick. Copy it if the events
+ * are needed afterwards.
+ *
+ * @param <T> The event type.
+ */
+@FunctionalInterface
+public interface BatchCallback<T extends FEvent>
+{
+    void call(List<T> events);
+}
@@ -0,0 +1,15 @@
+package fns.patchwork.event;
+
+/**
+ * A snapshot of the counters for a single event channel.
+ *
+ * @param published The number of events published to the channel.
+ * @param delivered The number of events handed to the channel's subscribers.
+ * @param dropped   The number of events discarded by {@link OverflowPolicy#DROP_OLDEST}.
+ * @param spilled   The number of events which overflowed into the spill queue.
+ * @param blocked   The number of times a publisher had to wait for the buffer to drain.
+ * @param buffered  The number of events currently waiting for delivery.
+ */
+public record ChannelStatistics(long published, long delivered, long dropped, long spilled, long blocked, int buffered)
+{
+}
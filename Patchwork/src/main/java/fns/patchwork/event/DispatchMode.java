@@ -0,0 +1,30 @@
+package fns.patchwork.event;
+
+/**
+ * Determines where an {@link EventSubscription}'s callback is executed when the {@link EventBus} delivers events.
+ */
+public enum DispatchMode
+{
+    /**
+     * The callback runs directly on the bus thread. This is the cheapest mode, but a slow callback delays every
+     * subscriber after it. Inline subscriptions which repeatedly exceed their time budget are isolated onto their own
+     * serial lane.
+     */
+    INLINE,
+    /**
+     * Each delivery runs on its own virtual thread. If virtual threads are not supported, deliveries share a bounded
+     * pool of platform threads, and wait for a free thread once all of them are busy (see
+     * {@link fns.patchwork.utils.VirtualThreads}). Batches may be processed concurrently, so the callback must be
+     * thread-safe.
+     */
+    VIRTUAL_THREAD,
+    /**
+     * Each delivery is handed off to the main server thread, which allows the callback to use the Bukkit API.
+     */
+    MAIN_THREAD,
+    /**
+     * Events are grouped by the subscription's key, and each group is processed on a virtual thread. Events with the
+     * same key are always processed one after another, in publishing order, while different keys run concurrently.
+     */
+    ORDERED
+}
@@ -0,0 +1,130 @@
+package fns.patchwork.event;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free bounded ring buffer for the {@link OverflowPolicy#DROP_OLDEST} policy, which is the policy of most
+ * pinged events. Publishers claim a slot by advancing the tail with a compare-and-set, so a ping never takes a lock.
+ * <br>
+ * Each slot carries a sequence number which tells publishers and the drain whether the slot is free for the current
+ * lap of the ring or holds an event of it. When the ring is full, the publisher removes the oldest event itself, the
+ * same way the drain does, and tries again.
+ * <br>
+ * The ring is allocated once, so publishing never allocates.
+ *
+ * @param <T> The event type.
+ */
+final class DroppingEventBuffer<T> implements EventBuffer<T>
+{
+    private final int capacity;
+    private final AtomicReferenceArray<T> ring;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(0L);
+    private final AtomicLong tail = new AtomicLong(0L);
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    DroppingEventBuffer(final int capacity)
+    {
+        this.capacity = capacity;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+
+        for (int i = 0; i < capacity; i++)
+        {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public void offer(final T event)
+    {
+        published.increment();
+
+        while (!tryOffer(event))
+        {
+            if (poll() != null)
+            {
+                dropped.increment();
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(final Collection<T> out)
+    {
+        int drained = 0;
+
+        T event;
+        while ((event = poll()) != null)
+        {
+            out.add(event);
+            drained++;
+        }
+
+        return drained;
+    }
+
+    @Override
+    public ChannelStatistics statistics(final long delivered)
+    {
+        final long buffered = tail.get() - head.get();
+        return new ChannelStatistics(published.sum(), delivered, dropped.sum(), 0L, 0L,
+                (int) Math.max(0L, Math.min(buffered, capacity)));
+    }
+
+    /**
+     * @return True if the event was written to the ring, false if the ring was full.
+     */
+    private boolean tryOffer(final T event)
+    {
+        while (true)
+        {
+            final long position = tail.get();
+            final int index = (int) (position % capacity);
+            final long difference = sequences.get(index) - position;
+
+            if (difference < 0L)
+            {
+                return false;
+            }
+
+            if (difference == 0L && tail.compareAndSet(position, position + 1L))
+            {
+                ring.set(index, event);
+                sequences.set(index, position + 1L);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return The oldest event in the ring, or null if the ring is empty or its oldest slot is still being written.
+     */
+    private T poll()
+    {
+        while (true)
+        {
+            final long position = head.get();
+            final int index = (int) (position % capacity);
+            final long difference = sequences.get(index) - (position + 1L);
+
+            if (difference < 0L)
+            {
+                return null;
+            }
+
+            if (difference == 0L && head.compareAndSet(position, position + 1L))
+            {
+                final T event = ring.get(index);
+                ring.set(index, null);
+                sequences.set(index, position + capacity);
+                return event;
+            }
+        }
+    }
+}
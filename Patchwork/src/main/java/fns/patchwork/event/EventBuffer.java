@@ -0,0 +1,54 @@
+package fns.patchwork.event;
+
+import java.util.Collection;
+
+/**
+ * A bounded buffer of published events. Any thread may publish, while only the thread ticking the bus drains.
+ *
+ * @param <T> The event type.
+ */
+interface EventBuffer<T>
+{
+    /**
+     * Creates the buffer for a channel. Channels which drop their oldest events use a lock-free ring, so that pings
+     * never contend on a lock. The other policies need to wait or spill while the buffer is full, and use a locked
+     * ring instead.
+     *
+     * @param capacity The number of events the buffer holds.
+     * @param policy   The policy to apply when the buffer is full.
+     * @param <T>      The event type.
+     * @return The new buffer.
+     */
+    static <T> EventBuffer<T> create(final int capacity, final OverflowPolicy policy)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Event buffer capacity must be at least 1.");
+        }
+
+        return policy == OverflowPolicy.DROP_OLDEST
+                ? new DroppingEventBuffer<>(capacity)
+                : new LockingEventBuffer<>(capacity, policy);
+    }
+
+    /**
+     * Publishes an event into the buffer, applying the overflow policy if the buffer is full.
+     *
+     * @param event The event to publish.
+     */
+    void offer(T event);
+
+    /**
+     * Moves every buffered event into the provided collection, oldest first.
+     *
+     * @param out The collection to drain into.
+     * @return The number of events drained.
+     */
+    int drainTo(Collection<T> out);
+
+    /**
+     * @param delivered The number of events the channel has delivered.
+     * @return A snapshot of the buffer's counters.
+     */
+    ChannelStatistics statistics(long delivered);
+}
@@ -1,59 +1,252 @@
 package fns.patchwork.event;
 
-import fns.patchwork.api.Context;
 import fns.patchwork.base.Patchwork;
 import fns.patchwork.service.Service;
-import java.util.HashSet;
+import fns.patchwork.utils.VirtualThreads;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
 
 public class EventBus extends Service
 {
+    /**
+     * Whether the current thread is inside a tick of any bus, including the inline deliveries made by that tick.
+     */
+    private static final ThreadLocal<Boolean> IN_TICK = ThreadLocal.withInitial(() -> false);
+
     private final Patchwork plugin;
-    private final Set<FEvent> eventSet = new HashSet<>();
-    private final SubscriptionBox<?> runningSubscriptions = new SubscriptionBox<>();
+    private final Map<Class<? extends FEvent>, EventChannel<?>> channels = new ConcurrentHashMap<>();
+    private final Queue<EventChannel<?>> pending = new ConcurrentLinkedQueue<>();
+    private final ExecutorService asyncDispatcher = VirtualThreads.newExecutor("patchwork-event-dispatch");
+    private final Map<Object, Set<EventSubscription<?>>> owned = new ConcurrentHashMap<>();
+    private final EventStreams streams;
+    private final Executor syncDispatcher;
+    private final AtomicBoolean ticking = new AtomicBoolean(false);
 
     public EventBus(final Patchwork plugin)
+    {
+        this(plugin, null);
+
+        Bukkit.getPluginManager()
+              .registerEvents(new LifecycleListener(), plugin);
+    }
+
+    /**
+     * Creates an event bus which is not owned by any plugin, for headless runs such as a
+     * {@link fns.patchwork.service.SimulatedTickScheduler} harness. The bus does not unsubscribe owners when plugins
+     * are disabled or players quit, {@link #getCommonsBase()} returns null, and Bukkit event streams are not available.
+     *
+     * @param syncDispatcher The executor for synchronous deliveries.
+     */
+    public EventBus(final Executor syncDispatcher)
+    {
+        this(null, syncDispatcher);
+    }
+
+    /**
+     * Creates an event bus with the provided owner and synchronous dispatcher. This constructor does not listen for
+     * plugins being disabled or players quitting; {@link #EventBus(Patchwork)} registers that listener for a bus owned
+     * by a plugin.
+     *
+     * @param plugin         The plugin which owns the bus, or null if the bus is not owned by a plugin.
+     * @param syncDispatcher The executor for synchronous deliveries, or null to use the plugin's main thread queue.
+     * @throws NullPointerException If both the plugin and the dispatcher are null, as there would be nothing to
+     *                              dispatch synchronous deliveries on.
+     */
+    public EventBus(final Patchwork plugin, final Executor syncDispatcher)
     {
         super("event_bus");
+        if (plugin == null)
+        {
+            Objects.requireNonNull(syncDispatcher, "An event bus without a plugin needs a synchronous dispatcher.");
+        }
+
         this.plugin = plugin;
+        this.streams = new EventStreams(this, plugin);
+        this.syncDispatcher = syncDispatcher;
     }
 
+    /**
+     * Registers an event instance with the channel of its event class, so that {@link FEvent#ping()} publishes it.
+     * The channel only holds a weak reference to the event, so registering per user events does not keep them alive.
+     *
+     * @param event The event to register.
+     */
     public void addEvent(final FEvent event)
     {
-        eventSet.add(event);
+        channel(event.getEventClass()).addEvent(event);
     }
 
-    public <T extends FEvent> T getEvent(final Class<T> eventClass)
+    /**
+     * Removes a registered event instance from its channel. The event is no longer published by
+     * {@link FEvent#ping()}.
+     *
+     * @param event The event to remove.
+     * @return True if the event was registered, false otherwise.
+     */
+    public boolean removeEvent(final FEvent event)
     {
-        final FEvent e = eventSet.stream()
-                                 .filter(event -> event.getEventClass()
-                                                       .equals(eventClass))
-                                 .findFirst()
-                                 .orElse(null);
+        final EventChannel<?> channel = channels.get(event.getEventClass());
+        return channel != null && channel.removeEvent(event);
+    }
+
+    /**
+     * Publishes an event instance to the channel of its event class. Unlike {@link FEvent#ping()}, the event does not
+     * need to have been added to the bus first, which allows each occurrence to carry its own payload. Subscriptions to
+     * the class receive published events whether or not an instance was ever added.
+     *
+     * @param event The event to publish.
+     */
+    public void publish(final FEvent event)
+    {
+        channel(event.getEventClass()).publish(event);
+    }
 
-        return eventClass.cast(e);
+    public <T extends FEvent> T getEvent(final Class<T> eventClass)
+    {
+        final EventChannel<T> channel = getChannel(eventClass);
+        return channel == null
+                ? null
+                : channel.getEvent();
     }
 
     public <T extends FEvent> EventSubscription<T> subscribe(final Class<T> eventClass, final Callback<T> callback)
     {
-        final Context<T> eventContext = () -> eventSet.stream()
-                                                      .filter(event -> event.getEventClass()
-                                                                            .equals(eventClass))
-                                                      .findFirst()
-                                                      .map(eventClass::cast)
-                                                      .orElse(null);
+        return subscription(eventClass).callback(callback)
+                                       .subscribe();
+    }
+
+    /**
+     * Subscribes to an event class, receiving every event published since the previous bus tick as a single batch.
+     *
+     * @param eventClass The event class to subscribe to.
+     * @param callback   The callback to invoke with each batch.
+     * @param <T>        The event type.
+     * @return The subscription.
+     */
+    public <T extends FEvent> EventSubscription<T> subscribeBatch(final Class<T> eventClass,
+                                                                  final BatchCallback<T> callback)
+    {
+        return subscription(eventClass).batchCallback(callback)
+                                       .subscribe();
+    }
+
+    /**
+     * Creates a builder for a subscription to the provided event class, which allows the dispatch mode, priority and
+     * time budget of the subscription to be configured.
+     *
+     * @param eventClass The event class to subscribe to.
+     * @param <T>        The event type.
+     * @return A new subscription builder.
+     */
+    public <T extends FEvent> SubscriptionBuilder<T> subscription(final Class<T> eventClass)
+    {
+        return new SubscriptionBuilder<>(this, eventClass);
+    }
 
-        if (eventContext.get() == null)
+    public void unsubscribe(final EventSubscription<?> subscription)
+    {
+        final EventChannel<?> channel = channels.get(subscription.getEventClass());
+        if (channel != null)
         {
-            throw new IllegalArgumentException("Event class " + eventClass.getName() + " is not registered.");
+            channel.getSubscriptions()
+                   .removeSubscription(subscription);
         }
 
-        return new EventSubscription<>(eventContext.get(), callback);
+        final Object owner = subscription.getOwner();
+        if (owner != null)
+        {
+            owned.computeIfPresent(owner, (o, set) ->
+            {
+                set.remove(subscription);
+                return set.isEmpty()
+                        ? null
+                        : set;
+            });
+        }
     }
 
-    public void unsubscribe(final EventSubscription<?> subscription)
+    /**
+     * Removes every subscription bound to the provided owner. This is called automatically when a plugin is disabled
+     * or a player quits.
+     *
+     * @param owner The plugin or player {@link java.util.UUID} which owns the subscriptions.
+     * @return The number of subscriptions which were removed.
+     */
+    public int unsubscribeAll(final Object owner)
+    {
+        final Set<EventSubscription<?>> subscriptions = owned.remove(owner);
+        if (subscriptions == null)
+        {
+            return 0;
+        }
+
+        for (final EventSubscription<?> subscription : subscriptions)
+        {
+            unsubscribe(subscription);
+        }
+        return subscriptions.size();
+    }
+
+    /**
+     * Measures the current size of the registry.
+     *
+     * @return The registry gauge.
+     */
+    public RegistryGauge getRegistryGauge()
+    {
+        int events = 0;
+        int subscriptions = 0;
+        for (final EventChannel<?> channel : channels.values())
+        {
+            events += channel.getEventCount();
+            subscriptions += channel.getSubscriptions()
+                                    .size();
+        }
+
+        int ownedSubscriptions = 0;
+        for (final Set<EventSubscription<?>> set : owned.values())
+        {
+            ownedSubscriptions += set.size();
+        }
+
+        return new RegistryGauge(channels.size(), events, subscriptions, ownedSubscriptions, owned.size());
+    }
+
+    /**
+     * Gets the delivery counters of the channel for the provided event class.
+     *
+     * @param eventClass The event class.
+     * @return The channel statistics, or null if no channel exists for the class.
+     */
+    public ChannelStatistics getStatistics(final Class<? extends FEvent> eventClass)
     {
-        runningSubscriptions.removeSubscription(subscription);
+        final EventChannel<?> channel = channels.get(eventClass);
+        return channel == null
+                ? null
+                : channel.getStatistics();
+    }
+
+    /**
+     * Gets the {@link EventStreams} for this bus, which exposes event channels and Bukkit events as Reactor streams.
+     *
+     * @return The event streams.
+     */
+    public EventStreams getStreams()
+    {
+        return streams;
     }
 
     public Patchwork getCommonsBase()
@@ -61,9 +254,128 @@ public class EventBus extends Service
         return plugin;
     }
 
+    /**
+     * Completes every event stream and stops the executor used for asynchronous dispatch. Deliveries which are already
+     * running are allowed to finish.
+     */
+    public void shutdown()
+    {
+        streams.complete();
+        asyncDispatcher.shutdown();
+    }
+
+    /**
+     * Delivers every event published since the previous tick. The bus is ticked as an asynchronous service, so a tick
+     * may be started while the previous one is still delivering. Ticks never overlap: the later one is skipped, and the
+     * running tick delivers the channels which were queued in the meantime.
+     */
     @Override
     public void tick()
     {
-        runningSubscriptions.tick();
+        if (!ticking.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        final boolean enclosing = IN_TICK.get();
+        IN_TICK.set(true);
+        try
+        {
+            EventChannel<?> channel;
+            while ((channel = pending.poll()) != null)
+            {
+                channel.tick();
+            }
+        }
+        finally
+        {
+            IN_TICK.set(enclosing);
+            ticking.set(false);
+        }
+    }
+
+    <T extends FEvent> EventSubscription<T> attach(final EventSubscription<T> subscription)
+    {
+        final EventChannel<T> channel = channel(subscription.getEventClass());
+        channel.getSubscriptions()
+               .addSubscription(subscription);
+
+        final Object owner = subscription.getOwner();
+        if (owner != null)
+        {
+            owned.computeIfAbsent(owner, o -> ConcurrentHashMap.newKeySet())
+                 .add(subscription);
+        }
+        return subscription;
+    }
+
+    void schedule(final EventChannel<?> channel)
+    {
+        pending.offer(channel);
+    }
+
+    Executor getAsyncDispatcher()
+    {
+        return asyncDispatcher;
+    }
+
+    /**
+     * Determines whether the current thread may wait for a bus tick to drain a full {@link OverflowPolicy#BLOCK}
+     * buffer. The main server thread may not, as waiting would stall the server, and neither may a thread inside a bus
+     * tick, as it could be waiting for the very tick it is running.
+     *
+     * @return True if the current thread may wait for a bus tick.
+     */
+    static boolean mayWaitForTick()
+    {
+        if (IN_TICK.get())
+        {
+            return false;
+        }
+
+        return Bukkit.getServer() == null || !Bukkit.isPrimaryThread();
+    }
+
+    Executor getSyncDispatcher()
+    {
+        return syncDispatcher != null
+                ? syncDispatcher
+                : plugin.getExecutor()
+                        .getSync();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends FEvent> EventChannel<T> getChannel(final Class<T> eventClass)
+    {
+        return (EventChannel<T>) channels.get(eventClass);
+    }
+
+    /**
+     * Gets the channel of an event class, creating it if it does not exist yet. Adding, publishing and subscribing all
+     * create channels here, so a class behaves the same whichever of them comes first.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends FEvent> EventChannel<T> channel(final Class<T> eventClass)
+    {
+        return (EventChannel<T>) channels.computeIfAbsent(eventClass, c -> new EventChannel<>(eventClass, this));
+    }
+
+    /**
+     * Removes owned subscriptions when their owner goes away.
+     */
+    private final class LifecycleListener implements Listener
+    {
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void pluginDisable(final PluginDisableEvent event)
+        {
+            unsubscribeAll(event.getPlugin());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void playerQuit(final PlayerQuitEvent event)
+        {
+            unsubscribeAll(event.getPlayer()
+                                .getUniqueId());
+        }
     }
 }
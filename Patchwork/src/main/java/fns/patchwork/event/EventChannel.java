@@ -0,0 +1,195 @@
+package fns.patchwork.event;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds every registered {@link FEvent} instance of a single event class, the subscriptions listening to that class,
+ * and the buffer of events published since the last bus tick. Channels are indexed by class in the {@link EventBus},
+ * and only queue themselves for delivery when an event is published, so the cost of a bus tick depends on the number
+ * of active channels rather than the number of registered event classes.
+ * <br>
+ * Registered event instances are only weakly referenced. Many events are created per user, such as one for each loaded
+ * user data object, and the channel must not keep those objects alive after the rest of the plugin has let go of them.
+ * The first live instance is kept as the template returned by {@link #getEvent()}, and is replaced once it has been
+ * collected.
+ * <br>
+ * A channel is created for its class by the first event added or published, or by the first subscription, whichever
+ * comes first. The buffer is sized by the first event added or published, so a channel which only has subscriptions
+ * does not buffer anything yet.
+ *
+ * @param <T> The event type of this channel.
+ */
+final class EventChannel<T extends FEvent>
+{
+    private final Class<T> eventClass;
+    private final EventBus bus;
+    // Guarded by itself.
+    private final Set<T> events = Collections.newSetFromMap(new WeakHashMap<>());
+    private volatile WeakReference<T> template = new WeakReference<>(null);
+    private final SubscriptionBox<T> subscriptions = new SubscriptionBox<>();
+    private final AtomicBoolean queued = new AtomicBoolean(false);
+    private volatile EventBuffer<T> buffer;
+    // Only touched by the thread ticking the bus, as its ticks never overlap.
+    private final List<T> batch = new ArrayList<>();
+    private final List<T> batchView = Collections.unmodifiableList(batch);
+    private volatile long delivered = 0;
+
+    EventChannel(final Class<T> eventClass, final EventBus bus)
+    {
+        this.eventClass = eventClass;
+        this.bus = bus;
+    }
+
+    Class<T> getEventClass()
+    {
+        return eventClass;
+    }
+
+    void addEvent(final FEvent event)
+    {
+        final T typed = eventClass.cast(event);
+        buffer(typed);
+        synchronized (events)
+        {
+            events.add(typed);
+            if (template.get() == null)
+            {
+                template = new WeakReference<>(typed);
+            }
+        }
+        typed.bind(this);
+    }
+
+    boolean removeEvent(final FEvent event)
+    {
+        final boolean removed;
+        synchronized (events)
+        {
+            removed = events.remove(event);
+            if (template.get() == event)
+            {
+                template = new WeakReference<>(null);
+            }
+        }
+
+        if (removed)
+        {
+            event.bind(null);
+        }
+        return removed;
+    }
+
+    T getEvent()
+    {
+        final T current = template.get();
+        if (current != null)
+        {
+            return current;
+        }
+
+        synchronized (events)
+        {
+            final Iterator<T> iterator = events.iterator();
+            if (!iterator.hasNext())
+            {
+                return null;
+            }
+
+            final T next = iterator.next();
+            template = new WeakReference<>(next);
+            return next;
+        }
+    }
+
+    /**
+     * @return The number of registered event instances which have not been collected yet.
+     */
+    int getEventCount()
+    {
+        synchronized (events)
+        {
+            return events.size();
+        }
+    }
+
+    SubscriptionBox<T> getSubscriptions()
+    {
+        return subscriptions;
+    }
+
+    void publish(final FEvent event)
+    {
+        final T typed = eventClass.cast(event);
+        buffer(typed).offer(typed);
+
+        if (queued.compareAndSet(false, true))
+        {
+            bus.schedule(this);
+        }
+    }
+
+    void tick()
+    {
+        final EventBuffer<T> current = buffer;
+        if (current == null)
+        {
+            return;
+        }
+
+        // Clear the flag first, so an event published while we are delivering queues the channel again.
+        queued.set(false);
+
+        try
+        {
+            if (current.drainTo(batch) == 0)
+            {
+                return;
+            }
+
+            subscriptions.deliver(batchView, bus);
+            delivered += batch.size();
+        }
+        finally
+        {
+            batch.clear();
+        }
+    }
+
+    ChannelStatistics getStatistics()
+    {
+        final EventBuffer<T> current = buffer;
+        return current == null
+                ? new ChannelStatistics(0L, delivered, 0L, 0L, 0L, 0)
+                : current.statistics(delivered);
+    }
+
+    /**
+     * Gets the buffer of this channel, creating it with the settings of the provided event if this is the first event
+     * added or published.
+     */
+    private EventBuffer<T> buffer(final T first)
+    {
+        final EventBuffer<T> current = buffer;
+        if (current != null)
+        {
+            return current;
+        }
+
+        synchronized (this)
+        {
+            if (buffer == null)
+            {
+                final EventBuffer<T> created = EventBuffer.create(first.getBufferCapacity(), first.getOverflowPolicy());
+                buffer = created;
+            }
+            return buffer;
+        }
+    }
+}
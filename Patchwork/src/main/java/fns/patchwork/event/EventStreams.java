@@ -0,0 +1,207 @@
+package fns.patchwork.event;
+
+import fns.patchwork.base.Patchwork;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Exposes {@link FEvent} channels, and optionally Bukkit events, as hot {@link Flux} streams.
+ * <br>
+ * Each event class is backed by a single multicast sink, created the first time a stream for that class is requested,
+ * and shared by every subscriber of the stream. Events are only emitted while the stream has subscribers. Each sink
+ * buffers up to {@link #BUFFER_SIZE} events for its slowest subscriber; events which arrive while that buffer is full
+ * are dropped and counted, rather than blocking the bus thread or the main thread.
+ * <br>
+ * The convenience operators on this class, such as {@link #bufferTimeout(Class, int, Duration)}, allow modules to batch
+ * work like logging or persistence without writing their own queueing code.
+ */
+public final class EventStreams
+{
+    /**
+     * The number of events each stream buffers for its slowest subscriber.
+     */
+    public static final int BUFFER_SIZE = 1024;
+
+    private final EventBus bus;
+    private final Patchwork plugin;
+    private final Map<Class<?>, Stream<?>> streams = new ConcurrentHashMap<>();
+
+    EventStreams(final EventBus bus, final Patchwork plugin)
+    {
+        this.bus = bus;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Gets the hot stream for an {@link FEvent} class. The stream receives every event delivered by the channel, in
+     * publishing order.
+     *
+     * @param eventClass The event class.
+     * @param <T>        The event type.
+     * @return The stream of events.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends FEvent> Flux<T> of(final Class<T> eventClass)
+    {
+        final Stream<T> stream = (Stream<T>) streams.computeIfAbsent(eventClass, c ->
+        {
+            final Stream<T> created = new Stream<>();
+            bus.subscribeBatch(eventClass, created::emitAll);
+            return created;
+        });
+        return stream.flux();
+    }
+
+    /**
+     * Gets a hot stream of Bukkit events. A listener is registered for the event class the first time the stream is
+     * requested, at {@link EventPriority#MONITOR} so that the final state of the event is observed. Cancelled events
+     * are not emitted.
+     *
+     * @param eventClass The Bukkit event class.
+     * @param <E>        The event type.
+     * @return The stream of events.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event> Flux<E> ofBukkit(final Class<E> eventClass)
+    {
+        final Stream<E> stream = (Stream<E>) streams.computeIfAbsent(eventClass, c ->
+        {
+            final Stream<E> created = new Stream<>();
+            Bukkit.getPluginManager()
+                  .registerEvent(eventClass, created, EventPriority.MONITOR,
+                                 (listener, event) ->
+                                 {
+                                     if (eventClass.isInstance(event))
+                                     {
+                                         created.emit(eventClass.cast(event));
+                                     }
+                                 }, plugin, true);
+            return created;
+        });
+        return stream.flux();
+    }
+
+    /**
+     * Splits the stream of an event class into consecutive windows of the provided duration.
+     *
+     * @param eventClass The event class.
+     * @param window     The duration of each window.
+     * @param <T>        The event type.
+     * @return A stream of windows.
+     */
+    public <T extends FEvent> Flux<Flux<T>> window(final Class<T> eventClass, final Duration window)
+    {
+        return of(eventClass).window(window);
+    }
+
+    /**
+     * Emits only the latest event of the provided class once per period.
+     *
+     * @param eventClass The event class.
+     * @param period     The sampling period.
+     * @param <T>        The event type.
+     * @return A sampled stream of events.
+     */
+    public <T extends FEvent> Flux<T> sample(final Class<T> eventClass, final Duration period)
+    {
+        return of(eventClass).sample(period);
+    }
+
+    /**
+     * Collects events of the provided class into lists, which are emitted when they reach the maximum size or when the
+     * maximum time has passed since the first event in the list, whichever happens first.
+     *
+     * @param eventClass The event class.
+     * @param maxSize    The maximum number of events in each list.
+     * @param maxTime    The maximum time to wait before emitting a list.
+     * @param <T>        The event type.
+     * @return A stream of event lists.
+     */
+    public <T extends FEvent> Flux<List<T>> bufferTimeout(final Class<T> eventClass, final int maxSize,
+                                                         final Duration maxTime)
+    {
+        return of(eventClass).bufferTimeout(maxSize, maxTime);
+    }
+
+    /**
+     * Gets the number of events which were dropped for the provided class, because the slowest subscriber of its stream
+     * could not keep up.
+     *
+     * @param eventClass The event class.
+     * @return The number of dropped events, or 0 if no stream exists for the class.
+     */
+    public long getDropped(final Class<?> eventClass)
+    {
+        final Stream<?> stream = streams.get(eventClass);
+        return stream == null
+                ? 0L
+                : stream.dropped.sum();
+    }
+
+    /**
+     * Completes every stream, and unregisters the listeners backing the Bukkit event streams.
+     */
+    void complete()
+    {
+        for (final Stream<?> stream : streams.values())
+        {
+            HandlerList.unregisterAll(stream);
+            stream.sink.tryEmitComplete();
+        }
+        streams.clear();
+    }
+
+    /**
+     * A multicast sink, which doubles as the Bukkit listener for Bukkit event streams.
+     */
+    private static final class Stream<T> implements Listener
+    {
+        private final Sinks.Many<T> sink = Sinks.many()
+                                                .multicast()
+                                                .onBackpressureBuffer(BUFFER_SIZE, false);
+        private final LongAdder dropped = new LongAdder();
+
+        private Flux<T> flux()
+        {
+            return sink.asFlux();
+        }
+
+        private void emitAll(final List<T> events)
+        {
+            for (final T event : events)
+            {
+                emit(event);
+            }
+        }
+
+        private void emit(final T event)
+        {
+            if (sink.currentSubscriberCount() == 0)
+            {
+                return;
+            }
+
+            // Asynchronous Bukkit events may be emitted concurrently, so retry while another thread is emitting.
+            Sinks.EmitResult result;
+            while ((result = sink.tryEmitNext(event)) == Sinks.EmitResult.FAIL_NON_SERIALIZED)
+            {
+                Thread.onSpinWait();
+            }
+
+            if (result.isFailure())
+            {
+                dropped.increment();
+            }
+        }
+    }
+}
@@ -1,15 +1,287 @@
 package fns.patchwork.event;
 
-public record EventSubscription<T extends FEvent>(T event, Callback<T> callback)
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A subscription to an event class on the {@link EventBus}.
+ * <br>
+ * Subscriptions are keyed by their event class, and never hold an event instance, so subscribing does not keep any
+ * registered event, or the user data it belongs to, alive.
+ * <br>
+ * Each subscription has a {@link DispatchMode}, which determines where its callback runs, and a
+ * {@link SubscriptionPriority}, which determines the order in which subscriptions to the same class are dispatched. The
+ * time spent inside the callback is recorded for every invocation, and can be read with {@link #getStatistics()}.
+ * <br>
+ * Inline subscriptions also have a time budget. If the average cost of an inline delivery exceeds the budget, the
+ * subscription is isolated: its later deliveries run on a serial lane off the bus thread, so it can no longer delay
+ * the other subscribers. The cost is still measured on the lane, and once the average falls below half of the budget,
+ * the subscription returns to the bus thread. Deliveries stay in order across both moves, as the bus thread only
+ * resumes inline deliveries once the lane has finished every batch it was given.
+ *
+ * @param <T> The event type.
+ * @see SubscriptionBuilder
+ */
+public final class EventSubscription<T extends FEvent>
 {
+    /**
+     * The default time budget for inline deliveries.
+     */
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(5L);
+
+    private final Class<T> eventClass;
+    private final BatchCallback<T> callback;
+    private final DispatchMode mode;
+    private final SubscriptionPriority priority;
+    private final Function<? super T, ?> key;
+    private final long budgetNanos;
+    private final Object owner;
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong(0L);
+    /**
+     * The number of batches handed to the lane which have not finished yet.
+     */
+    private final AtomicInteger onLane = new AtomicInteger(0);
+
+    // Only touched by one thread at a time: the bus thread while inline, or the lane while isolated.
+    private volatile long averageNanos = 0L;
+    // Only touched by the bus thread.
+    private SerialLanes lanes;
+    private volatile boolean isolated = false;
+    private volatile boolean cancelled = false;
+
+    public EventSubscription(final Class<T> eventClass, final Callback<T> callback)
+    {
+        this(eventClass, forEach(callback));
+    }
+
+    public EventSubscription(final Class<T> eventClass, final BatchCallback<T> callback)
+    {
+        this(eventClass, callback, DispatchMode.INLINE, SubscriptionPriority.NORMAL, null, DEFAULT_BUDGET, null);
+    }
+
+    EventSubscription(final Class<T> eventClass,
+                      final BatchCallback<T> callback,
+                      final DispatchMode mode,
+                      final SubscriptionPriority priority,
+                      final Function<? super T, ?> key,
+                      final Duration budget,
+                      final Object owner)
+    {
+        if (mode == DispatchMode.ORDERED && key == null)
+        {
+            throw new IllegalArgumentException("Ordered subscriptions require a key.");
+        }
+
+        this.eventClass = eventClass;
+        this.callback = callback;
+        this.mode = mode;
+        this.priority = priority;
+        this.key = key;
+        this.budgetNanos = budget.toNanos();
+        this.owner = owner;
+    }
+
+    static <T extends FEvent> BatchCallback<T> forEach(final Callback<T> callback)
+    {
+        return events ->
+        {
+            for (final T e : events)
+            {
+                callback.call(e);
+            }
+        };
+    }
+
+    public Class<T> getEventClass()
+    {
+        return eventClass;
+    }
+
+    public BatchCallback<T> callback()
+    {
+        return callback;
+    }
+
+    public DispatchMode getMode()
+    {
+        return mode;
+    }
+
+    public SubscriptionPriority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * Gets the owner this subscription is bound to. Owned subscriptions are removed from the bus automatically when
+     * their owner goes away: a {@link org.bukkit.plugin.Plugin} when it is disabled, or a player's {@link java.util.UUID}
+     * when that player quits.
+     *
+     * @return The owner of this subscription, or null if the subscription is not bound to an owner.
+     */
+    public Object getOwner()
+    {
+        return owner;
+    }
 
+    public boolean isIsolated()
+    {
+        return isolated;
+    }
+
+    public SubscriptionStatistics getStatistics()
+    {
+        return new SubscriptionStatistics(invocations.sum(), events.sum(), totalNanos.sum(), maxNanos.get(), isolated);
+    }
+
+    /**
+     * Stops delivering events to this subscription. Batches which were already handed to another thread are still
+     * delivered. Use {@link EventBus#unsubscribe(EventSubscription)} to also remove the subscription from the bus.
+     *
+     * @return True if the subscription was not cancelled before, false otherwise.
+     */
     public boolean cancel()
     {
-        return event().cancel();
+        final boolean wasCancelled = cancelled;
+        cancelled = true;
+        return !wasCancelled;
     }
 
     public boolean isCancelled()
     {
-        return event().isCancelled();
+        return cancelled;
+    }
+
+    /**
+     * Dispatches a batch of events according to this subscription's mode. This is only called on the bus thread, and
+     * the provided list is only valid for the duration of the call.
+     */
+    void deliver(final List<T> batch, final EventBus bus)
+    {
+        if (cancelled)
+        {
+            return;
+        }
+
+        switch (mode)
+        {
+            case INLINE -> deliverInline(batch, bus);
+            case VIRTUAL_THREAD -> bus.getAsyncDispatcher()
+                                      .execute(task(List.copyOf(batch)));
+            case MAIN_THREAD -> bus.getSyncDispatcher()
+                                   .execute(task(List.copyOf(batch)));
+            case ORDERED -> deliverOrdered(batch, bus);
+        }
+    }
+
+    private void deliverInline(final List<T> batch, final EventBus bus)
+    {
+        // Batches already on the lane must finish first, even once the subscription is no longer isolated.
+        if (isolated || onLane.get() > 0)
+        {
+            final List<T> copy = List.copyOf(batch);
+            onLane.incrementAndGet();
+            lanes(bus).submit(this, () ->
+            {
+                try
+                {
+                    measure(invoke(copy));
+                }
+                finally
+                {
+                    onLane.decrementAndGet();
+                }
+            });
+            return;
+        }
+
+        measure(invoke(batch));
+    }
+
+    /**
+     * Updates the average cost of an inline delivery, and moves the subscription off or back onto the bus thread when
+     * the average crosses the budget.
+     */
+    private void measure(final long elapsed)
+    {
+        final long average = averageNanos + (elapsed - averageNanos) / 8L;
+        averageNanos = average;
+
+        if (!isolated && average > budgetNanos)
+        {
+            isolated = true;
+            FreedomLogger.getLogger("Patchwork")
+                         .warn("Subscription to " + eventClass.getName()
+                                       + " exceeded its time budget and was moved off the event bus thread.");
+        } else if (isolated && average < budgetNanos / 2L)
+        {
+            isolated = false;
+            FreedomLogger.getLogger("Patchwork")
+                         .info("Subscription to " + eventClass.getName()
+                                       + " is within its time budget again and returned to the event bus thread.");
+        }
+    }
+
+    private void deliverOrdered(final List<T> batch, final EventBus bus)
+    {
+        final Map<Object, List<T>> groups = new LinkedHashMap<>();
+        for (final T e : batch)
+        {
+            groups.computeIfAbsent(key.apply(e), k -> new ArrayList<>())
+                  .add(e);
+        }
+
+        final SerialLanes serial = lanes(bus);
+        for (final Map.Entry<Object, List<T>> group : groups.entrySet())
+        {
+            serial.submit(group.getKey(), task(group.getValue()));
+        }
+    }
+
+    private SerialLanes lanes(final EventBus bus)
+    {
+        if (lanes == null)
+        {
+            lanes = new SerialLanes(bus.getAsyncDispatcher());
+        }
+        return lanes;
+    }
+
+    private Runnable task(final List<T> batch)
+    {
+        return () -> invoke(batch);
+    }
+
+    private long invoke(final List<T> batch)
+    {
+        final long start = System.nanoTime();
+        try
+        {
+            callback.call(batch);
+        }
+        catch (Exception ex)
+        {
+            FreedomLogger.getLogger("Patchwork")
+                         .error(ex);
+        }
+
+        final long elapsed = System.nanoTime() - start;
+        invocations.increment();
+        events.add(batch.size());
+        totalNanos.add(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+        return elapsed;
     }
 }
@@ -1,9 +1,23 @@
 package fns.patchwork.event;
 
+/**
+ * The base class for Patchwork events.
+ * <br>
+ * Events may be pinged from any thread. Each ping publishes this event instance into the bounded buffer of its
+ * {@link EventChannel}, and the {@link EventBus} delivers every buffered event to the channel's subscribers as a batch
+ * on its next tick. A ping is therefore delivered exactly once, unless the channel's {@link OverflowPolicy} discards
+ * it. Events which carry a payload, such as the user they relate to, can be kept as one instance per payload and
+ * pinged repeatedly without allocating.
+ */
 public abstract class FEvent
 {
-    private boolean isCancelled;
-    private boolean triggered;
+    /**
+     * The default capacity of an event channel's buffer.
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+    private volatile boolean isCancelled;
+    private volatile EventChannel<?> channel;
 
     protected FEvent()
     {
@@ -12,17 +26,27 @@ public abstract class FEvent
 
     public void ping()
     {
-        this.triggered = true;
+        final EventChannel<?> c = this.channel;
+        if (c != null)
+        {
+            c.publish(this);
+        }
     }
 
+    /**
+     * Pings used to set a flag which stayed set until it was reset. Each ping is now delivered exactly once by the
+     * {@link EventBus}, so there is nothing left to reset.
+     *
+     * @deprecated This method does nothing, and will be removed.
+     */
+    @Deprecated(forRemoval = true)
     public void reset()
     {
-        this.triggered = false;
     }
 
-    boolean shouldCall()
+    void bind(final EventChannel<?> channel)
     {
-        return triggered;
+        this.channel = channel;
     }
 
     public boolean cancel()
@@ -36,5 +60,27 @@ public abstract class FEvent
         return isCancelled;
     }
 
+    /**
+     * The capacity of the channel buffer for this event class. This is read from the first event of the class which is
+     * added to or published on the bus.
+     *
+     * @return The number of events the channel buffers between bus ticks.
+     */
+    protected int getBufferCapacity()
+    {
+        return DEFAULT_BUFFER_CAPACITY;
+    }
+
+    /**
+     * The overflow policy of the channel buffer for this event class. This is read from the first event of the class
+     * which is added to or published on the bus.
+     *
+     * @return The policy to apply when the buffer is full.
+     */
+    protected OverflowPolicy getOverflowPolicy()
+    {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
     public abstract Class<? extends FEvent> getEventClass();
 }
@@ -0,0 +1,136 @@
+package fns.patchwork.event;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded ring buffer guarded by a lock, for the {@link OverflowPolicy#BLOCK} and {@link OverflowPolicy#SPILL}
+ * policies, which need to wait or spill while the buffer is full.
+ * <br>
+ * Under {@link OverflowPolicy#BLOCK}, the main server thread and threads inside a bus tick never wait for room, as
+ * described by {@link EventBus#mayWaitForTick()}. Their overflow is spilled instead.
+ * <br>
+ * The ring is allocated once, so publishing does not allocate unless the {@link OverflowPolicy#SPILL} queue is in use.
+ *
+ * @param <T> The event type.
+ */
+final class LockingEventBuffer<T> implements EventBuffer<T>
+{
+    private final Object[] ring;
+    private final OverflowPolicy policy;
+    private final Queue<T> spill = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    private int head = 0;
+    private int size = 0;
+    private long published = 0;
+    private long spilled = 0;
+    private long blocked = 0;
+
+    LockingEventBuffer(final int capacity, final OverflowPolicy policy)
+    {
+        this.ring = new Object[capacity];
+        this.policy = policy;
+    }
+
+    @Override
+    public void offer(final T event)
+    {
+        lock.lock();
+        try
+        {
+            published++;
+
+            if (size == ring.length && !makeRoom(event))
+            {
+                return;
+            }
+
+            ring[(head + size) % ring.length] = event;
+            size++;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the overflow policy to a full buffer. Must be called while holding the lock.
+     *
+     * @return True if the event should still be written to the ring, false if it was handled otherwise.
+     */
+    private boolean makeRoom(final T event)
+    {
+        if (policy == OverflowPolicy.BLOCK && EventBus.mayWaitForTick())
+        {
+            blocked++;
+            while (size == ring.length)
+            {
+                notFull.awaitUninterruptibly();
+            }
+            return true;
+        }
+
+        spill(event);
+        return false;
+    }
+
+    private void spill(final T event)
+    {
+        spill.add(event);
+        spilled++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drainTo(final Collection<T> out)
+    {
+        lock.lock();
+        try
+        {
+            final int drained = size + spill.size();
+
+            for (int i = 0; i < size; i++)
+            {
+                final int index = (head + i) % ring.length;
+                out.add((T) ring[index]);
+                ring[index] = null;
+            }
+
+            head = 0;
+            size = 0;
+
+            T spilledEvent;
+            while ((spilledEvent = spill.poll()) != null)
+            {
+                out.add(spilledEvent);
+            }
+
+            notFull.signalAll();
+            return drained;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ChannelStatistics statistics(final long delivered)
+    {
+        lock.lock();
+        try
+        {
+            return new ChannelStatistics(published, delivered, 0L, spilled, blocked, size + spill.size());
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package fns.patchwork.event;
+
+/**
+ * Determines what an event channel does when an event is published while its buffer is full.
+ *
+ * @see FEvent#getOverflowPolicy()
+ */
+public enum OverflowPolicy
+{
+    /**
+     * The oldest buffered event is discarded to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * The publishing thread waits until the bus has drained the buffer. The main server thread never waits, as that
+     * would stall the server, and neither do threads inside a bus tick, such as inline subscribers, as they could be
+     * waiting for themselves: their events are spilled instead. Patchwork's bus is ticked on the asynchronous scheduler
+     * pool, so this policy only holds back publishers on other asynchronous threads.
+     */
+    BLOCK,
+    /**
+     * The event is kept in an unbounded overflow queue, which is delivered after the buffered events on the next bus
+     * tick. This never loses events, but allocates while the buffer is full.
+     */
+    SPILL
+}
@@ -0,0 +1,15 @@
+package fns.patchwork.event;
+
+/**
+ * A point in time measurement of the size of the {@link EventBus} registry. Every value should stay flat over a long
+ * uptime; a value which only ever grows indicates that events or subscriptions are being leaked.
+ *
+ * @param channels      The number of event classes with a channel.
+ * @param events        The number of registered event instances which have not been collected yet.
+ * @param subscriptions The number of subscriptions across every channel.
+ * @param owned         The number of subscriptions bound to a plugin or player session.
+ * @param owners        The number of distinct plugins and player sessions which own subscriptions.
+ */
+public record RegistryGauge(int channels, int events, int subscriptions, int owned, int owners)
+{
+}
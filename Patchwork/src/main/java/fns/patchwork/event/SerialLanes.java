@@ -0,0 +1,34 @@
+package fns.patchwork.event;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on an executor while guaranteeing that tasks submitted with the same key run one after another, in
+ * submission order. Tasks with different keys may run concurrently. A lane is discarded as soon as it becomes idle, so
+ * keys such as player UUIDs do not accumulate.
+ * <br>
+ * Submitted tasks must not throw, otherwise the tasks queued behind them on the same lane are skipped.
+ */
+final class SerialLanes
+{
+    private final Executor executor;
+    private final Map<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    SerialLanes(final Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    void submit(final Object key, final Runnable task)
+    {
+        final CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.runAsync(task, executor)
+                : tail.thenRunAsync(task, executor));
+
+        // Registered outside of compute, as an already completed future would run this callback inside it.
+        next.whenComplete((v, th) -> tails.remove(key, next));
+    }
+}
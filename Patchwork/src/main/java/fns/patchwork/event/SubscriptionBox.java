@@ -1,20 +1,25 @@
 package fns.patchwork.event;
 
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 class SubscriptionBox<T extends FEvent>
 {
+    private static final Comparator<EventSubscription<?>> BY_PRIORITY =
+            Comparator.comparing(EventSubscription::getPriority);
+
     private final List<EventSubscription<T>> subscriptions;
 
     public SubscriptionBox()
     {
-        this.subscriptions = new ArrayList<>();
+        this.subscriptions = new CopyOnWriteArrayList<>();
     }
 
-    public void addSubscription(final EventSubscription<T> subscription)
+    public synchronized void addSubscription(final EventSubscription<T> subscription)
     {
         subscriptions.add(subscription);
+        subscriptions.sort(BY_PRIORITY);
     }
 
     public void removeSubscription(final EventSubscription<?> subscription)
@@ -22,17 +27,16 @@ class SubscriptionBox<T extends FEvent>
         subscriptions.remove(subscription);
     }
 
-    public void tick()
+    public int size()
+    {
+        return subscriptions.size();
+    }
+
+    public void deliver(final List<T> events, final EventBus bus)
     {
-        subscriptions.forEach(s ->
+        for (final EventSubscription<T> s : subscriptions)
         {
-            if (!s.event()
-                  .shouldCall()) return;
-
-            s.callback()
-             .call(s.event());
-            s.event()
-             .reset();
-        });
+            s.deliver(events, bus);
+        }
     }
 }
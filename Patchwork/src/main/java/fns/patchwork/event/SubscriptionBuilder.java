@@ -0,0 +1,148 @@
+package fns.patchwork.event;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A builder for {@link EventSubscription}s, obtained through {@link EventBus#subscription(Class)}.
+ * <br>
+ * By default, subscriptions are dispatched {@link DispatchMode#INLINE} with {@link SubscriptionPriority#NORMAL}
+ * priority and the {@link EventSubscription#DEFAULT_BUDGET}, and are not bound to an owner, so they stay registered
+ * until {@link EventBus#unsubscribe(EventSubscription)} is called.
+ *
+ * @param <T> The event type.
+ */
+public final class SubscriptionBuilder<T extends FEvent>
+{
+    private final EventBus bus;
+    private final Class<T> eventClass;
+    private DispatchMode mode = DispatchMode.INLINE;
+    private SubscriptionPriority priority = SubscriptionPriority.NORMAL;
+    private Function<? super T, ?> key = null;
+    private Duration budget = EventSubscription.DEFAULT_BUDGET;
+    private BatchCallback<T> callback = null;
+    private Object owner = null;
+
+    SubscriptionBuilder(final EventBus bus, final Class<T> eventClass)
+    {
+        this.bus = bus;
+        this.eventClass = eventClass;
+    }
+
+    public SubscriptionBuilder<T> inline()
+    {
+        this.mode = DispatchMode.INLINE;
+        return this;
+    }
+
+    public SubscriptionBuilder<T> virtualThread()
+    {
+        this.mode = DispatchMode.VIRTUAL_THREAD;
+        return this;
+    }
+
+    public SubscriptionBuilder<T> mainThread()
+    {
+        this.mode = DispatchMode.MAIN_THREAD;
+        return this;
+    }
+
+    /**
+     * Dispatches events on virtual threads, while processing events with the same key one after another. For example,
+     * using the player's UUID as the key serializes all work for each player.
+     *
+     * @param key The function which extracts the ordering key from an event.
+     * @return This builder.
+     */
+    public SubscriptionBuilder<T> ordered(final Function<? super T, ?> key)
+    {
+        this.mode = DispatchMode.ORDERED;
+        this.key = key;
+        return this;
+    }
+
+    public SubscriptionBuilder<T> priority(final SubscriptionPriority priority)
+    {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Sets the average time an inline delivery may take before the subscription is isolated from the bus thread.
+     *
+     * @param budget The time budget.
+     * @return This builder.
+     */
+    public SubscriptionBuilder<T> budget(final Duration budget)
+    {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * Binds the subscription to a plugin. The subscription is removed from the bus when the plugin is disabled.
+     *
+     * @param plugin The plugin which owns the subscription.
+     * @return This builder.
+     */
+    public SubscriptionBuilder<T> owner(final Plugin plugin)
+    {
+        this.owner = plugin;
+        return this;
+    }
+
+    /**
+     * Binds the subscription to the session of a player. The subscription is removed from the bus when the player
+     * quits.
+     *
+     * @param player The player whose session owns the subscription.
+     * @return This builder.
+     */
+    public SubscriptionBuilder<T> session(final Player player)
+    {
+        return session(player.getUniqueId());
+    }
+
+    /**
+     * Binds the subscription to the session of the player with the provided unique id. The subscription is removed
+     * from the bus when the player quits.
+     *
+     * @param uuid The unique id of the player whose session owns the subscription.
+     * @return This builder.
+     */
+    public SubscriptionBuilder<T> session(final UUID uuid)
+    {
+        this.owner = uuid;
+        return this;
+    }
+
+    public SubscriptionBuilder<T> callback(final Callback<T> callback)
+    {
+        this.callback = EventSubscription.forEach(callback);
+        return this;
+    }
+
+    public SubscriptionBuilder<T> batchCallback(final BatchCallback<T> callback)
+    {
+        this.callback = callback;
+        return this;
+    }
+
+    /**
+     * Builds the subscription and registers it with the bus.
+     *
+     * @return The registered subscription.
+     */
+    public EventSubscription<T> subscribe()
+    {
+        if (callback == null)
+        {
+            throw new IllegalStateException("A callback must be provided before subscribing.");
+        }
+
+        return bus.attach(new EventSubscription<>(eventClass, callback, mode, priority, key, budget, owner));
+    }
+}
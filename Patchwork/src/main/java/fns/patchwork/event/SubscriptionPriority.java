@@ -0,0 +1,14 @@
+package fns.patchwork.event;
+
+/**
+ * The order in which subscriptions to the same event class receive their deliveries. Subscriptions with a higher
+ * priority are dispatched first.
+ */
+public enum SubscriptionPriority
+{
+    HIGHEST,
+    HIGH,
+    NORMAL,
+    LOW,
+    LOWEST
+}
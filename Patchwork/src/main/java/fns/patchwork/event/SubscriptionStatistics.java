@@ -0,0 +1,14 @@
+package fns.patchwork.event;
+
+/**
+ * A snapshot of the time accounting for a single {@link EventSubscription}.
+ *
+ * @param invocations The number of times the callback was invoked.
+ * @param events      The number of events handed to the callback.
+ * @param totalNanos  The total time spent inside the callback, in nanoseconds.
+ * @param maxNanos    The longest single invocation of the callback, in nanoseconds.
+ * @param isolated    Whether the subscription was moved off the bus thread for exceeding its time budget.
+ */
+public record SubscriptionStatistics(long invocations, long events, long totalNanos, long maxNanos, boolean isolated)
+{
+}
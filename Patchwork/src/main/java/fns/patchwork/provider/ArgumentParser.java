@@ -0,0 +1,33 @@
+package fns.patchwork.provider;
+
+import fns.patchwork.data.ArgumentParserRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Parses a single type from command or configuration input. Parsers are registered for the type they produce in the
+ * {@link ArgumentParserRegistry}, and looked up by that type.
+ *
+ * @param <T> The type this parser produces.
+ */
+@FunctionalInterface
+public interface ArgumentParser<T>
+{
+    /**
+     * Parses the input.
+     *
+     * @param input The input to parse. If {@link #width()} is more than one, this is that many words joined by a single
+     *              space.
+     * @return The parsed object, or null if the input is not valid for this type.
+     */
+    @Nullable
+    T parse(@NotNull String input);
+
+    /**
+     * @return The number of command arguments this type is parsed from. Most types are parsed from a single argument.
+     */
+    default int width()
+    {
+        return 1;
+    }
+}
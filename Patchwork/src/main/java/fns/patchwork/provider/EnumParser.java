@@ -0,0 +1,58 @@
+package fns.patchwork.provider;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Parses the constants of an enum by name, without regard to case.
+ * <br>
+ * The constants are indexed once, when the parser is created, so parsing is a single map lookup. This is much cheaper
+ * than {@link Enum#valueOf(Class, String)} on invalid input, which throws, or normalising the input before each lookup.
+ *
+ * @param <E> The type of the enum.
+ */
+public final class EnumParser<E extends Enum<E>> implements ArgumentParser<E>
+{
+    private final Map<String, E> constants = new HashMap<>();
+
+    /**
+     * Creates a parser for every constant of an enum.
+     *
+     * @param type The type of the enum.
+     */
+    public EnumParser(final Class<E> type)
+    {
+        this(type, constant -> true);
+    }
+
+    /**
+     * Creates a parser for some of the constants of an enum.
+     *
+     * @param type   The type of the enum.
+     * @param filter Which constants may be parsed.
+     */
+    public EnumParser(final Class<E> type, final Predicate<E> filter)
+    {
+        for (final E constant : type.getEnumConstants())
+        {
+            if (filter.test(constant))
+            {
+                constants.put(constant.name()
+                                      .toLowerCase(Locale.ROOT), constant);
+            }
+        }
+    }
+
+    @Override
+    public @Nullable E parse(@NotNull final String input)
+    {
+        final E constant = constants.get(input);
+        return constant != null
+                ? constant
+                : constants.get(input.toLowerCase(Locale.ROOT));
+    }
+}
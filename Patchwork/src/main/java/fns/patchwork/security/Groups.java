@@ -38,13 +38,30 @@ public enum Groups
         return this.permission;
     }
 
-    public static String fromPlayer(final Player player) {
-        for (final Groups group : values()) {
-            if (player.hasPermission(group.getPermission())) {
-                return group.getName();
+    /**
+     * Resolves the highest rank the player holds by checking each rank permission, starting with {@link #OWNER}.
+     * <br>
+     * This performs one permission check per rank. Prefer the cached value from {@link RankResolver} wherever the
+     * rank is needed repeatedly, such as when formatting chat.
+     *
+     * @param player The player to resolve the rank for.
+     * @return The highest rank the player holds, or {@link #NON_OP} if they hold none.
+     */
+    public static Groups highest(final Player player)
+    {
+        final Groups[] values = values();
+        for (int i = values.length - 1; i >= 0; i--)
+        {
+            if (player.hasPermission(values[i].getPermission()))
+            {
+                return values[i];
             }
         }
-        return Groups.NON_OP.getName();
+        return Groups.NON_OP;
+    }
+
+    public static String fromPlayer(final Player player) {
+        return highest(player).getName();
     }
 
     public static String fromSender(final CommandSender sender) {
@@ -0,0 +1,156 @@
+package fns.patchwork.security;
+
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.service.Task;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Caches the highest {@link Groups} rank of every online player for the duration of their session.
+ * <br>
+ * A player's rank is resolved once when they join, and is refreshed when their permissions may have changed: when they
+ * change worlds, when {@link #refresh(Player)} is called by a permission holder, and periodically by the
+ * {@link RefreshTask} to pick up changes made by other plugins. The cached rank is discarded when the player quits.
+ * <br>
+ * Reads are lock-free and perform no permission checks, so this class is safe to use from asynchronous chat events.
+ */
+public class RankResolver implements Listener
+{
+    /**
+     * The interval, in ticks, between periodic rank refreshes.
+     */
+    private static final long REFRESH_INTERVAL = 100L;
+
+    /**
+     * The cached rank of each online player.
+     */
+    private final Map<UUID, Groups> ranks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link RankResolver} and registers its listeners with the provided plugin.
+     *
+     * @param patchwork The plugin which owns this resolver.
+     */
+    public RankResolver(final Patchwork patchwork)
+    {
+        Bukkit.getPluginManager()
+              .registerEvents(this, patchwork);
+    }
+
+    /**
+     * Gets the cached rank of the player. If the player does not have a cached rank yet, it is resolved and cached.
+     *
+     * @param player The player to get the rank of.
+     * @return The highest rank the player holds.
+     */
+    @NotNull
+    public Groups getRank(final Player player)
+    {
+        final Groups rank = ranks.get(player.getUniqueId());
+        if (rank != null)
+        {
+            return rank;
+        }
+
+        return refresh(player);
+    }
+
+    /**
+     * Gets the display name of the sender's rank. Non-player senders are displayed as {@code CONSOLE}.
+     *
+     * @param sender The sender to get the rank name of.
+     * @return The display name of the sender's rank.
+     * @see Groups#fromSender(CommandSender)
+     */
+    @NotNull
+    public String getRankName(final CommandSender sender)
+    {
+        if (!(sender instanceof Player player)) return "CONSOLE";
+
+        return getRank(player).getName();
+    }
+
+    /**
+     * Resolves the player's rank again and replaces the cached value. This should be called whenever the player's
+     * permissions are changed.
+     *
+     * @param player The player to refresh.
+     * @return The newly resolved rank.
+     */
+    @NotNull
+    public Groups refresh(final Player player)
+    {
+        final Groups rank = Groups.highest(player);
+        ranks.put(player.getUniqueId(), rank);
+        return rank;
+    }
+
+    /**
+     * Resolves the rank of every online player again.
+     */
+    public void refreshAll()
+    {
+        for (final Player player : Bukkit.getOnlinePlayers())
+        {
+            refresh(player);
+        }
+    }
+
+    /**
+     * @return A new {@link Task} which refreshes every online player's rank periodically.
+     */
+    public Task createRefreshTask()
+    {
+        return new RefreshTask(this);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerJoin(final PlayerJoinEvent event)
+    {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerChangedWorld(final PlayerChangedWorldEvent event)
+    {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerQuit(final PlayerQuitEvent event)
+    {
+        ranks.remove(event.getPlayer()
+                          .getUniqueId());
+    }
+
+    /**
+     * Periodically refreshes every online player's rank, so changes made outside of Patchwork are picked up.
+     */
+    private static final class RefreshTask extends Task
+    {
+        private final RankResolver resolver;
+
+        private RefreshTask(final RankResolver resolver)
+        {
+            super("rank-refresh", REFRESH_INTERVAL, REFRESH_INTERVAL);
+            this.resolver = resolver;
+        }
+
+        @Override
+        public void run()
+        {
+            resolver.refreshAll();
+        }
+    }
+}
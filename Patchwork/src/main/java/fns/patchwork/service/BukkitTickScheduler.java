@@ -0,0 +1,67 @@
+package fns.patchwork.service;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * The {@link TickScheduler} used on a live server, which passes every call to the Bukkit scheduler.
+ */
+public final class BukkitTickScheduler implements TickScheduler
+{
+    @Override
+    public BukkitTask runTask(final Plugin plugin, final Runnable runnable)
+    {
+        return Bukkit.getScheduler()
+                     .runTask(plugin, runnable);
+    }
+
+    @Override
+    public BukkitTask runTaskLater(final Plugin plugin, final Runnable runnable, final long delay)
+    {
+        return Bukkit.getScheduler()
+                     .runTaskLater(plugin, runnable, delay);
+    }
+
+    @Override
+    public BukkitTask runTaskTimer(final Plugin plugin, final Runnable runnable, final long delay, final long period)
+    {
+        return Bukkit.getScheduler()
+                     .runTaskTimer(plugin, runnable, delay, period);
+    }
+
+    @Override
+    public BukkitTask runTaskAsynchronously(final Plugin plugin, final Runnable runnable)
+    {
+        return Bukkit.getScheduler()
+                     .runTaskAsynchronously(plugin, runnable);
+    }
+
+    @Override
+    public BukkitTask runTaskLaterAsynchronously(final Plugin plugin, final Runnable runnable, final long delay)
+    {
+        return Bukkit.getScheduler()
+                     .runTaskLaterAsynchronously(plugin, runnable, delay);
+    }
+
+    @Override
+    public BukkitTask runTaskTimerAsynchronously(final Plugin plugin, final Runnable runnable, final long delay,
+                                                 final long period)
+    {
+        return Bukkit.getScheduler()
+                     .runTaskTimerAsynchronously(plugin, runnable, delay, period);
+    }
+
+    @Override
+    public void cancelTask(final int taskId)
+    {
+        Bukkit.getScheduler()
+              .cancelTask(taskId);
+    }
+
+    @Override
+    public long getCurrentTick()
+    {
+        return Bukkit.getCurrentTick();
+    }
+}
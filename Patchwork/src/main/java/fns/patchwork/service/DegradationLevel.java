@@ -0,0 +1,53 @@
+package fns.patchwork.service;
+
+/**
+ * How far cosmetic work is cut back by the {@link LoadGovernor}. Each level is entered once the smoothed milliseconds
+ * per tick reach its threshold, and left once they drop {@link LoadGovernor#HYSTERESIS_MSPT} below it again.
+ */
+public enum DegradationLevel
+{
+    /**
+     * The server is keeping up, and cosmetic work runs at its full rate.
+     */
+    NONE(0.0, 1),
+    /**
+     * Cosmetic work runs at half its rate.
+     */
+    REDUCED(40.0, 2),
+    /**
+     * Cosmetic work runs at a quarter of its rate.
+     */
+    MINIMAL(45.0, 4),
+    /**
+     * Cosmetic work is suspended until the server recovers.
+     */
+    SUSPENDED(50.0, 0);
+
+    private final double threshold;
+    private final int divisor;
+
+    DegradationLevel(final double threshold, final int divisor)
+    {
+        this.threshold = threshold;
+        this.divisor = divisor;
+    }
+
+    /**
+     * @return The smoothed milliseconds per tick at which this level is entered.
+     */
+    public double getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Decides whether a run of cosmetic work goes ahead at this level.
+     *
+     * @param run The number of times the work has been due so far.
+     * @return True if the work should run, false if this run should be skipped.
+     */
+    public boolean admits(final long run)
+    {
+        return divisor != 0 && run % divisor == 0L;
+    }
+}
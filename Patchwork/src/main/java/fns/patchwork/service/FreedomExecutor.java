@@ -3,34 +3,45 @@ package fns.patchwork.service;
 import fns.patchwork.base.Patchwork;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
  * This is a holder class for {@link Executor} objects that are used to delegate runnable tasks to the Bukkit Scheduler.
  * This class is here for both convenience purposes, and also for the sake of providing easy access to executors for
  * {@link CompletableFuture} invocations.
+ * <br>
+ * The synchronous executor returned by {@link #getSync()} is a {@link MainThreadQueue}, which batches every runnable into
+ * a single scheduled task per tick instead of scheduling a Bukkit task for each one.
+ * <br>
+ * Blocking I/O should use {@link #getIo()} rather than {@link #getAsync()}. The asynchronous executor shares the Bukkit
+ * scheduler's pool with every other plugin, while the I/O executor runs each runnable on its own virtual thread, with a
+ * limit on how many run at once.
  */
 public class FreedomExecutor
 {
     /**
      * An executor which runs tasks synchronously.
      */
-    private final Executor syncExecutor;
+    private final MainThreadQueue syncExecutor;
     /**
      * An executor which runs tasks asynchronously.
      */
     private final Executor asyncExecutor;
+    /**
+     * An executor which runs blocking I/O on virtual threads.
+     */
+    private final IoExecutor ioExecutor;
 
     /**
      * Creates a new {@link FreedomExecutor} instance.
      */
     public FreedomExecutor(final Patchwork patchwork)
     {
-        syncExecutor = r -> Bukkit.getScheduler()
-                                  .runTask(patchwork, r);
-        asyncExecutor = r -> Bukkit.getScheduler()
-                                   .runTaskAsynchronously(patchwork, r);
+        syncExecutor = new MainThreadQueue(patchwork);
+        syncExecutor.start();
+        asyncExecutor = r -> TickSchedulers.get()
+                                           .runTaskAsynchronously(patchwork, r);
+        ioExecutor = new IoExecutor("patchwork-io");
     }
 
     /**
@@ -41,8 +52,8 @@ public class FreedomExecutor
      */
     public Executor singleExecutor(final JavaPlugin plugin)
     {
-        return r -> Bukkit.getScheduler()
-                          .runTask(plugin, r);
+        return r -> TickSchedulers.get()
+                                  .runTask(plugin, r);
     }
 
     /**
@@ -55,8 +66,8 @@ public class FreedomExecutor
      */
     public Executor delayedExecutor(final JavaPlugin plugin, final long delay)
     {
-        return r -> Bukkit.getScheduler()
-                          .runTaskLater(plugin, r, delay);
+        return r -> TickSchedulers.get()
+                                  .runTaskLater(plugin, r, delay);
     }
 
     /**
@@ -71,8 +82,8 @@ public class FreedomExecutor
      */
     public Executor periodicExecutor(final JavaPlugin plugin, final long initialDelay, final long period)
     {
-        return r -> Bukkit.getScheduler()
-                          .runTaskTimer(plugin, r, initialDelay, period);
+        return r -> TickSchedulers.get()
+                                  .runTaskTimer(plugin, r, initialDelay, period);
     }
 
     /**
@@ -83,8 +94,8 @@ public class FreedomExecutor
      */
     public Executor asynchronousSingleExecutor(final JavaPlugin plugin)
     {
-        return r -> Bukkit.getScheduler()
-                          .runTaskAsynchronously(plugin, r);
+        return r -> TickSchedulers.get()
+                                  .runTaskAsynchronously(plugin, r);
     }
 
     /**
@@ -97,8 +108,8 @@ public class FreedomExecutor
      */
     public Executor asynchronousDelayedExecutor(final JavaPlugin plugin, final long delay)
     {
-        return r -> Bukkit.getScheduler()
-                          .runTaskLaterAsynchronously(plugin, r, delay);
+        return r -> TickSchedulers.get()
+                                  .runTaskLaterAsynchronously(plugin, r, delay);
     }
 
     /**
@@ -113,8 +124,8 @@ public class FreedomExecutor
      */
     public Executor asynchronousPeriodicExecutor(final JavaPlugin plugin, final long delay, final long period)
     {
-        return r -> Bukkit.getScheduler()
-                          .runTaskTimerAsynchronously(plugin, r, delay, period);
+        return r -> TickSchedulers.get()
+                                  .runTaskTimerAsynchronously(plugin, r, delay, period);
     }
 
     /**
@@ -128,6 +139,26 @@ public class FreedomExecutor
         return syncExecutor;
     }
 
+    /**
+     * Gets the {@link MainThreadQueue} backing the synchronous executor, which exposes its queue size and latency.
+     *
+     * @return The main thread queue.
+     */
+    public MainThreadQueue getMainThreadQueue()
+    {
+        return syncExecutor;
+    }
+
+    /**
+     * Stops the synchronous executor and the I/O executor. Runnables which are still queued are discarded, while I/O
+     * which is already running is allowed to finish.
+     */
+    public void shutdown()
+    {
+        syncExecutor.stop();
+        ioExecutor.shutdown();
+    }
+
     /**
      * Gets the asynchronous executor instance. This is a convenience for {@link CompletableFuture} invocations, when
      * defining a custom executor for the {@link CompletableFuture}.
@@ -138,4 +169,15 @@ public class FreedomExecutor
     {
         return asyncExecutor;
     }
+
+    /**
+     * Gets the I/O executor instance. This should be used for blocking work such as JDBC calls, file access and config
+     * reads, so it does not occupy the threads of the Bukkit scheduler.
+     *
+     * @return The I/O executor instance.
+     */
+    public IoExecutor getIo()
+    {
+        return ioExecutor;
+    }
 }
@@ -0,0 +1,155 @@
+package fns.patchwork.service;
+
+import fns.patchwork.utils.VirtualThreads;
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link Executor} for blocking I/O, such as JDBC calls, file writes and config reads.
+ * <br>
+ * Each runnable runs on its own virtual thread when the JVM supports them (see {@link VirtualThreads}), so blocking
+ * work does not occupy the Bukkit asynchronous scheduler's shared pool. The number of runnables in flight at the same
+ * time is capped by a concurrency limit, which protects the resources behind the I/O, like a database connection
+ * limit. Runnables submitted beyond the limit wait in a queue, without holding a thread, until a running one finishes.
+ * Without virtual threads, runnables are also limited to the {@link VirtualThreads#FALLBACK_THREADS} platform threads,
+ * so fewer of them may actually run at the same time than the concurrency limit allows.
+ */
+public final class IoExecutor implements Executor
+{
+    /**
+     * The default maximum number of runnables in flight at the same time.
+     */
+    public static final int DEFAULT_CONCURRENCY = 256;
+
+    private final ExecutorService threads;
+    private final int concurrency;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final LongAdder completed = new LongAdder();
+    private final FreedomLogger logger = FreedomLogger.getLogger("Patchwork");
+
+    /**
+     * Creates a new I/O executor with the {@link #DEFAULT_CONCURRENCY}.
+     *
+     * @param name The name prefix for the threads used when virtual threads are not supported.
+     */
+    public IoExecutor(final String name)
+    {
+        this(name, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Creates a new I/O executor.
+     *
+     * @param name        The name prefix for the threads used when virtual threads are not supported.
+     * @param concurrency The maximum number of runnables in flight at the same time.
+     */
+    public IoExecutor(final String name, final int concurrency)
+    {
+        if (concurrency < 1)
+        {
+            throw new IllegalArgumentException("The concurrency limit must be at least 1.");
+        }
+
+        this.threads = VirtualThreads.newExecutor(name);
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public void execute(final Runnable command)
+    {
+        waiting.offer(command);
+        dispatch();
+    }
+
+    /**
+     * @return The number of runnables which are currently running.
+     */
+    public int getActive()
+    {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The number of runnables waiting for a free slot.
+     */
+    public int getWaiting()
+    {
+        return waiting.size();
+    }
+
+    /**
+     * @return The number of runnables which have finished running.
+     */
+    public long getCompleted()
+    {
+        return completed.sum();
+    }
+
+    /**
+     * @return The maximum number of runnables in flight at the same time.
+     */
+    public int getConcurrency()
+    {
+        return concurrency;
+    }
+
+    /**
+     * Stops accepting new work. Runnables which are already running are allowed to finish, and waiting runnables are
+     * discarded.
+     */
+    public void shutdown()
+    {
+        waiting.clear();
+        threads.shutdown();
+    }
+
+    private void dispatch()
+    {
+        while (!waiting.isEmpty())
+        {
+            final int current = inFlight.get();
+            if (current >= concurrency)
+            {
+                return;
+            }
+
+            if (!inFlight.compareAndSet(current, current + 1))
+            {
+                continue;
+            }
+
+            final Runnable command = waiting.poll();
+            if (command == null)
+            {
+                inFlight.decrementAndGet();
+                return;
+            }
+
+            threads.execute(() -> run(command));
+        }
+    }
+
+    private void run(final Runnable command)
+    {
+        try
+        {
+            command.run();
+        }
+        catch (RuntimeException ex)
+        {
+            logger.error(ex);
+        }
+        finally
+        {
+            completed.increment();
+            inFlight.decrementAndGet();
+            dispatch();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package fns.patchwork.service;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import fns.patchwork.utils.logging.FreedomLogger;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Tracks how long each server tick takes, and publishes a {@link DegradationLevel} which cosmetic work should respect.
+ * <br>
+ * The duration of every tick is folded into an exponentially weighted moving average, so a single slow tick does not
+ * change the level, but sustained load does within a second or two. The level rises as soon as the average reaches the
+ * threshold of a higher level, and only falls once the average is {@link #HYSTERESIS_MSPT} below the threshold of the
+ * current level, so the level does not flap when the server hovers around a threshold.
+ * <br>
+ * The {@link TickLoop} applies the level to {@link TickPriority#COSMETIC} services. Other cosmetic work, such as a
+ * display timer, may check {@link #getLevel()} itself. Gameplay services are never affected.
+ * <br>
+ * The governor only measures ticks while it is registered as a listener.
+ */
+public final class LoadGovernor implements Listener
+{
+    /**
+     * The weight of the latest tick in the moving average.
+     */
+    public static final double SMOOTHING = 0.05;
+    /**
+     * How far, in milliseconds per tick, the average must drop below a level's threshold before the level is left.
+     */
+    public static final double HYSTERESIS_MSPT = 5.0;
+
+    private static final DegradationLevel[] LEVELS = DegradationLevel.values();
+
+    private final FreedomLogger logger = FreedomLogger.getLogger("Patchwork");
+    private volatile double mspt = 0.0;
+    private volatile DegradationLevel level = DegradationLevel.NONE;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(final ServerTickEndEvent event)
+    {
+        record(event.getTickDuration());
+    }
+
+    /**
+     * Folds the duration of a tick into the moving average, and updates the level.
+     *
+     * @param tickMillis The duration of the tick, in milliseconds.
+     */
+    public void record(final double tickMillis)
+    {
+        final double average = mspt + SMOOTHING * (tickMillis - mspt);
+        mspt = average;
+
+        DegradationLevel next = level;
+        while (next.ordinal() < LEVELS.length - 1 && average >= LEVELS[next.ordinal() + 1].getThreshold())
+        {
+            next = LEVELS[next.ordinal() + 1];
+        }
+        while (next.ordinal() > 0 && average < next.getThreshold() - HYSTERESIS_MSPT)
+        {
+            next = LEVELS[next.ordinal() - 1];
+        }
+
+        if (next != level)
+        {
+            logger.info(String.format("Cosmetic work degradation changed from %s to %s at %.1f mspt.", level, next,
+                                      average));
+            level = next;
+        }
+    }
+
+    /**
+     * @return The current degradation level.
+     */
+    public DegradationLevel getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * @return The moving average of the milliseconds per tick.
+     */
+    public double getMspt()
+    {
+        return mspt;
+    }
+}
@@ -0,0 +1,205 @@
+package fns.patchwork.service;
+
+import fns.patchwork.base.Registration;
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * An {@link Executor} which hands work off to the main server thread in batches.
+ * <br>
+ * Any thread may submit work. Submitted work is placed on a lock-free multi-producer queue, which is drained once per
+ * tick by a single scheduled task, rather than scheduling a separate Bukkit task for every runnable. Each drain stops
+ * once the per-tick budget is spent, and the remaining work spills over to the next tick. Work submitted while the
+ * queue is being drained also runs on the next tick, so a runnable which resubmits itself can not stall the tick.
+ * <br>
+ * The time each runnable spends waiting in the queue is recorded in a {@link TickProfile} of kind
+ * {@link TickProfile.Kind#QUEUE}.
+ */
+public final class MainThreadQueue implements Executor
+{
+    /**
+     * The default time budget for draining the queue in a single tick.
+     */
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(10L);
+
+    private final JavaPlugin plugin;
+    private final Queue<Handoff> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final LongAdder submitted = new LongAdder();
+    private final TickProfile latency;
+    private final FreedomLogger logger = FreedomLogger.getLogger("Patchwork");
+    private volatile long budgetNanos = DEFAULT_BUDGET.toNanos();
+    private BukkitTask task;
+    private volatile boolean stopped = false;
+    private long spills = 0L;
+
+    /**
+     * Creates a new queue owned by the provided plugin. Work is not run until {@link #start()} is called.
+     *
+     * @param plugin The plugin which owns the queue.
+     */
+    public MainThreadQueue(final JavaPlugin plugin)
+    {
+        this.plugin = plugin;
+        this.latency = Registration.getProfilerRegistry()
+                                   .getProfile(TickProfile.Kind.QUEUE, "main-thread-handoff", Duration.ofMillis(50L));
+    }
+
+    /**
+     * Schedules the task which drains the queue every tick.
+     */
+    public void start()
+    {
+        stopped = false;
+        if (task == null)
+        {
+            task = TickSchedulers.get()
+                                 .runTaskTimer(plugin, this::drain, 0L, 1L);
+        }
+    }
+
+    /**
+     * Cancels the task which drains the queue. Work which is still queued is discarded, and later work is rejected
+     * until the queue is started again.
+     */
+    public void stop()
+    {
+        stopped = true;
+        if (task != null)
+        {
+            task.cancel();
+            task = null;
+        }
+
+        queue.clear();
+        size.set(0);
+    }
+
+    /**
+     * Queues a runnable to be run on the main server thread.
+     *
+     * @param command The runnable to run.
+     * @throws RejectedExecutionException If the queue has been stopped, as nothing would ever run the runnable.
+     */
+    @Override
+    public void execute(final Runnable command)
+    {
+        if (stopped)
+        {
+            throw new RejectedExecutionException("The main thread queue has been stopped.");
+        }
+
+        final Handoff handoff = new Handoff(command, System.nanoTime());
+        queue.offer(handoff);
+        size.incrementAndGet();
+
+        // The queue may have been stopped while we were offering, in which case nothing will run the handoff.
+        if (stopped)
+        {
+            if (queue.remove(handoff))
+            {
+                size.decrementAndGet();
+            }
+            throw new RejectedExecutionException("The main thread queue has been stopped.");
+        }
+
+        submitted.increment();
+    }
+
+    /**
+     * Sets the time budget for draining the queue in a single tick.
+     *
+     * @param budget The budget.
+     */
+    public void setBudget(final Duration budget)
+    {
+        this.budgetNanos = budget.toNanos();
+    }
+
+    /**
+     * @return The number of runnables waiting to be run.
+     */
+    public int size()
+    {
+        return size.get();
+    }
+
+    /**
+     * @return The number of runnables submitted since the queue was created.
+     */
+    public long getSubmitted()
+    {
+        return submitted.sum();
+    }
+
+    /**
+     * @return The number of ticks which did not drain every runnable they started with.
+     */
+    public long getSpills()
+    {
+        return spills;
+    }
+
+    /**
+     * @return A snapshot of the time runnables spent waiting in the queue.
+     */
+    public ProfileSnapshot getLatency()
+    {
+        return latency.snapshot();
+    }
+
+    private void drain()
+    {
+        final long start = System.nanoTime();
+        final long deadline = start + budgetNanos;
+        // Only drain what was queued when the tick started, so work submitted by the runnables runs on the next tick.
+        int remaining = size.get();
+
+        while (remaining > 0)
+        {
+            final Handoff handoff = queue.poll();
+            if (handoff == null)
+            {
+                break;
+            }
+
+            remaining--;
+            size.decrementAndGet();
+            latency.record(System.nanoTime() - handoff.queuedAt());
+
+            try
+            {
+                handoff.command()
+                       .run();
+            }
+            catch (RuntimeException ex)
+            {
+                logger.error(ex);
+            }
+
+            if (remaining > 0 && System.nanoTime() >= deadline)
+            {
+                spills++;
+                break;
+            }
+        }
+    }
+
+    /**
+     * A queued runnable, along with the time it was queued at.
+     *
+     * @param command  The runnable.
+     * @param queuedAt The {@link System#nanoTime()} at which it was queued.
+     */
+    private record Handoff(Runnable command, long queuedAt)
+    {
+    }
+}
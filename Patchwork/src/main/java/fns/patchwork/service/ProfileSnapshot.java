@@ -0,0 +1,37 @@
+package fns.patchwork.service;
+
+/**
+ * A point in time copy of a {@link TickProfile}. All durations are in nanoseconds.
+ *
+ * @param kind       The kind of work which was measured.
+ * @param name       The name of the service or task.
+ * @param count      The number of recorded runs.
+ * @param totalNanos The total time of every recorded run.
+ * @param p50Nanos   The median duration of the recent runs.
+ * @param p99Nanos   The 99th percentile duration of the recent runs.
+ * @param maxNanos   The longest recorded run.
+ * @param overruns   The number of runs which took longer than the budget.
+ * @param rejections The number of runs which were refused, such as rate limited commands.
+ * @param histogram  The number of runs in each latency bucket; see {@link TickProfile#HISTOGRAM_BUCKETS}.
+ */
+public record ProfileSnapshot(TickProfile.Kind kind,
+                              String name,
+                              long count,
+                              long totalNanos,
+                              long p50Nanos,
+                              long p99Nanos,
+                              long maxNanos,
+                              long overruns,
+                              long rejections,
+                              long[] histogram)
+{
+    /**
+     * @return The average duration of a run, or 0 if nothing was recorded.
+     */
+    public long averageNanos()
+    {
+        return count == 0L
+                ? 0L
+                : totalNanos / count;
+    }
+}
@@ -0,0 +1,149 @@
+package fns.patchwork.service;
+
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.base.Registration;
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Periodically writes every {@link ProfileSnapshot} in the {@link fns.patchwork.data.ProfilerRegistry} to a file in the
+ * plugin's data folder, so tick costs can be inspected after the fact.
+ * <br>
+ * The snapshots are taken on the thread running this task, and the file is written asynchronously. The file is replaced
+ * atomically, so it never contains a partial snapshot.
+ * <br>
+ * The collapsed stacks sampled by the {@link TickWatchdog} are written next to it, in a format which flame graph tools
+ * read directly.
+ */
+public final class ProfilerSnapshotTask extends Task
+{
+    /**
+     * The interval, in ticks, between snapshots.
+     */
+    private static final long SNAPSHOT_INTERVAL = 6000L;
+    /**
+     * The name of the snapshot file.
+     */
+    private static final String FILE_NAME = "profiler-snapshot.tsv";
+    /**
+     * The name of the file containing the collapsed stacks of slow callbacks.
+     */
+    private static final String STACKS_FILE_NAME = "slow-callbacks.collapsed";
+
+    private final Patchwork patchwork;
+
+    /**
+     * Creates a new snapshot task.
+     *
+     * @param patchwork The plugin to write the snapshot file for.
+     */
+    public ProfilerSnapshotTask(final Patchwork patchwork)
+    {
+        super("profiler-snapshot", SNAPSHOT_INTERVAL, SNAPSHOT_INTERVAL);
+        this.patchwork = patchwork;
+    }
+
+    @Override
+    public void run()
+    {
+        final List<ProfileSnapshot> snapshots = Registration.getProfilerRegistry()
+                                                            .getSnapshots();
+        final List<String> stacks = patchwork.getWatchdog()
+                                             .getCollapsedStacks();
+        final Instant taken = Instant.now();
+
+        patchwork.getExecutor()
+                 .getIo()
+                 .execute(() -> write(taken, snapshots, stacks));
+    }
+
+    private void write(final Instant taken, final List<ProfileSnapshot> snapshots, final List<String> stacks)
+    {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("# ")
+               .append(taken)
+               .append('\n')
+               .append("kind\tname\tcount\ttotal_ms\tavg_us\tp50_us\tp99_us\tmax_us\toverruns\trejections\thistogram_log2_us\n");
+
+        for (final ProfileSnapshot snapshot : snapshots)
+        {
+            builder.append(snapshot.kind())
+                   .append('\t')
+                   .append(snapshot.name())
+                   .append('\t')
+                   .append(snapshot.count())
+                   .append('\t')
+                   .append(snapshot.totalNanos() / 1_000_000L)
+                   .append('\t')
+                   .append(snapshot.averageNanos() / 1_000L)
+                   .append('\t')
+                   .append(snapshot.p50Nanos() / 1_000L)
+                   .append('\t')
+                   .append(snapshot.p99Nanos() / 1_000L)
+                   .append('\t')
+                   .append(snapshot.maxNanos() / 1_000L)
+                   .append('\t')
+                   .append(snapshot.overruns())
+                   .append('\t')
+                   .append(snapshot.rejections())
+                   .append('\t')
+                   .append(histogram(snapshot.histogram()))
+                   .append('\n');
+        }
+
+        try
+        {
+            final Path folder = patchwork.getDataFolder()
+                                         .toPath();
+            Files.createDirectories(folder);
+
+            replace(folder, FILE_NAME, builder);
+            if (!stacks.isEmpty())
+            {
+                replace(folder, STACKS_FILE_NAME, String.join("\n", stacks) + "\n");
+            }
+        }
+        catch (IOException ex)
+        {
+            FreedomLogger.getLogger("Patchwork")
+                         .error(ex);
+        }
+    }
+
+    /**
+     * Formats a histogram as its bucket counts separated by commas, with trailing empty buckets left out.
+     */
+    private static String histogram(final long[] histogram)
+    {
+        int length = histogram.length;
+        while (length > 0 && histogram[length - 1] == 0L)
+        {
+            length--;
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(',');
+            }
+            builder.append(histogram[i]);
+        }
+
+        return builder.toString();
+    }
+
+    private static void replace(final Path folder, final String name, final CharSequence content) throws IOException
+    {
+        final Path temp = folder.resolve(name + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, folder.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,27 +1,71 @@
 package fns.patchwork.service;
 
+import java.time.Duration;
+
 /**
  * Represents a ticking service. Services may be asynchronous or synchronous, however there are some restrictions:
  * <ul>
  *     <li>Sync services may not have a complexity greater than 5.</li>
  *     <li>Async services may not interact with the Bukkit API in any form.</li>
  * </ul>
+ * Synchronous services are all ticked by the {@link TickLoop}, in the order of their {@link TickPriority}. Each service
+ * has a time budget for a single tick; a service which overruns its budget is deferred by one tick, unless it is
+ * {@link TickPriority#CRITICAL}.
  */
 public abstract class Service
 {
+    /**
+     * The default time budget for a single tick of a service.
+     */
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(2L);
+
     /**
      * The name of the service.
      */
     private final String name;
+    /**
+     * The priority class of the service.
+     */
+    private final TickPriority priority;
+    /**
+     * The time budget for a single tick of the service.
+     */
+    private final Duration budget;
 
     /**
-     * Creates a new service with the given name.
+     * Creates a new service with the given name, with {@link TickPriority#NORMAL} priority and the
+     * {@link #DEFAULT_BUDGET}.
      *
      * @param name The name of the service.
      */
     protected Service(final String name)
+    {
+        this(name, TickPriority.NORMAL);
+    }
+
+    /**
+     * Creates a new service with the given name and priority class, and the {@link #DEFAULT_BUDGET}.
+     *
+     * @param name     The name of the service.
+     * @param priority The priority class of the service.
+     */
+    protected Service(final String name, final TickPriority priority)
+    {
+        this(name, priority, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Creates a new service with the given name, priority class and time budget.
+     *
+     * @param name     The name of the service.
+     * @param priority The priority class of the service.
+     * @param budget   The time budget for a single tick of the service.
+     */
+    protected Service(final String name, final TickPriority priority, final Duration budget)
     {
         this.name = name;
+        this.priority = priority;
+        this.budget = budget;
     }
 
     /**
@@ -44,4 +88,20 @@ public abstract class Service
     {
         return name;
     }
+
+    /**
+     * @return The priority class of the service.
+     */
+    public TickPriority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * @return The time budget for a single tick of the service.
+     */
+    public Duration getBudget()
+    {
+        return budget;
+    }
 }
@@ -1,7 +1,9 @@
 package fns.patchwork.service;
 
-import java.util.concurrent.Executor;
-import org.bukkit.Bukkit;
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.base.Registration;
+import fns.patchwork.base.Shortcuts;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
@@ -13,6 +15,14 @@ import org.jetbrains.annotations.NotNull;
  * {@link #getServiceId()} will return the ID of the task which was returned by the scheduler. Subscriptions also manage
  * the state of the service, using {@link #isActive()} to determine if the service is currently running.
  * <br>
+ * Synchronous services are not scheduled individually. They are added to Patchwork's {@link TickLoop}, which ticks
+ * every synchronous service from a single task. Asynchronous services are still scheduled as their own repeating
+ * asynchronous task.
+ * <br>
+ * Services which perform blocking I/O may opt into the {@link IoExecutor} instead. Each tick of such a service is
+ * handed off to a virtual thread, and a tick is skipped if the previous one is still running, so a slow backend can not
+ * pile up threads.
+ * <br>
  * <br>
  * The subscription itself provides type inference to safely store the actual service instance. This is useful for when
  * we need to access the service itself, without calling to the service directly.
@@ -25,18 +35,34 @@ public final class ServiceSubscription<T extends Service>
      * The service this subscription is for.
      */
     private final T service;
+    /**
+     * The plugin which owns the service.
+     */
+    private final JavaPlugin plugin;
     /**
      * Whether this is an asynchronous service.
      */
     private final boolean async;
     /**
-     * The executor used to schedule the service.
+     * Whether the service runs on the {@link IoExecutor}.
+     */
+    private final boolean io;
+    /**
+     * Whether a tick of an I/O service is currently running.
+     */
+    private final AtomicBoolean ticking = new AtomicBoolean(false);
+    /**
+     * The interval, in ticks, at which the service is ticked.
+     */
+    private final long interval;
+    /**
+     * The {@link TickLoop} which ticks a synchronous service, or null to use Patchwork's loop.
      */
-    private final Executor executor;
+    private final TickLoop loop;
     /**
-     * The ID of the service from the associated {@link BukkitTask} which was returned by the Scheduler.
+     * The {@link BukkitTask} of an asynchronous service, or null if the service is synchronous or not running.
      */
-    private final int serviceId;
+    private BukkitTask task;
 
     /**
      * Whether the service is currently running.
@@ -106,30 +132,45 @@ public final class ServiceSubscription<T extends Service>
     ServiceSubscription(@NotNull final JavaPlugin plugin, @NotNull final T service,
                         final long interval, final boolean async)
     {
-        this.service = service;
-        this.async = async;
-
-        final int[] tempId = new int[1];
+        this(plugin, service, interval, async, false);
+    }
 
-        if (async)
-        {
-            this.executor = r ->
-            {
-                final BukkitTask task = Bukkit.getScheduler()
-                                              .runTaskTimerAsynchronously(plugin, r, 0, interval);
-                tempId[0] = task.getTaskId();
-            };
-        } else
-        {
-            this.executor = r ->
-            {
-                final BukkitTask task = Bukkit.getScheduler()
-                                              .runTaskTimer(plugin, r, 0, interval);
-                tempId[0] = task.getTaskId();
-            };
-        }
+    /**
+     * Creates a new subscription for the given service. I/O services are always asynchronous.
+     *
+     * @param plugin   The plugin which owns the service.
+     * @param service  The service to subscribe to.
+     * @param interval The interval at which the service should be scheduled.
+     * @param async    Whether the service should be scheduled asynchronously.
+     * @param io       Whether each tick should run on the {@link IoExecutor}.
+     */
+    ServiceSubscription(@NotNull final JavaPlugin plugin, @NotNull final T service,
+                        final long interval, final boolean async, final boolean io)
+    {
+        this(plugin, service, interval, async, io, null);
+    }
 
-        this.serviceId = tempId[0];
+    /**
+     * Creates a new subscription for the given service, which is ticked by the provided {@link TickLoop} instead of
+     * Patchwork's loop when it is synchronous. This allows a service to run without a server, such as on a
+     * {@link SimulatedTickScheduler}.
+     *
+     * @param plugin   The plugin which owns the service, or null if the service runs without a server.
+     * @param service  The service to subscribe to.
+     * @param interval The interval at which the service should be scheduled.
+     * @param async    Whether the service should be scheduled asynchronously.
+     * @param io       Whether each tick should run on the {@link IoExecutor}.
+     * @param loop     The loop which ticks the service, or null to use Patchwork's loop.
+     */
+    ServiceSubscription(final JavaPlugin plugin, @NotNull final T service,
+                        final long interval, final boolean async, final boolean io, final TickLoop loop)
+    {
+        this.plugin = plugin;
+        this.service = service;
+        this.async = async || io;
+        this.io = io;
+        this.interval = interval;
+        this.loop = loop;
     }
 
     /**
@@ -137,8 +178,39 @@ public final class ServiceSubscription<T extends Service>
      */
     public void start()
     {
+        if (this.isActive)
+        {
+            return;
+        }
+
         this.isActive = true;
-        this.executor.execute(service::tick);
+
+        if (async)
+        {
+            final TickProfile profile = Registration.getProfilerRegistry()
+                                                    .getProfile(TickProfile.Kind.SERVICE, service.getName(),
+                                                                service.getBudget());
+            final Runnable tick = () ->
+            {
+                final long start = System.nanoTime();
+                try
+                {
+                    service.tick();
+                }
+                finally
+                {
+                    profile.record(System.nanoTime() - start);
+                }
+            };
+
+            this.task = TickSchedulers.get()
+                                      .runTaskTimerAsynchronously(plugin, io
+                                              ? handOff(tick)
+                                              : tick, 0, interval);
+        } else
+        {
+            getTickLoop().add(plugin, this, interval);
+        }
     }
 
     /**
@@ -147,18 +219,43 @@ public final class ServiceSubscription<T extends Service>
     public void stop()
     {
         this.isActive = false;
-        Bukkit.getScheduler()
-              .cancelTask(this.getServiceId());
+
+        if (task != null)
+        {
+            task.cancel();
+            task = null;
+        } else if (!async)
+        {
+            getTickLoop().remove(this);
+        }
     }
 
     /**
-     * Returns the ID of the service from the associated {@link BukkitTask} which was returned by the Scheduler.
+     * Returns the ID of the service from the associated {@link BukkitTask} which was returned by the Scheduler. For
+     * synchronous services, this is the ID of the {@link TickLoop} task.
      *
-     * @return The ID of the service.
+     * @return The ID of the service, or -1 if the service is not running.
      */
     public int getServiceId()
     {
-        return serviceId;
+        if (async)
+        {
+            return task == null
+                    ? -1
+                    : task.getTaskId();
+        }
+
+        return isActive
+                ? getTickLoop().getTaskId()
+                : -1;
+    }
+
+    /**
+     * @return The interval, in ticks, at which the service is ticked.
+     */
+    public long getInterval()
+    {
+        return interval;
     }
 
     /**
@@ -178,6 +275,14 @@ public final class ServiceSubscription<T extends Service>
         return async;
     }
 
+    /**
+     * @return Whether each tick of the service runs on the {@link IoExecutor}.
+     */
+    public boolean isIo()
+    {
+        return io;
+    }
+
     /**
      * @return Whether the service is currently running.
      */
@@ -185,4 +290,38 @@ public final class ServiceSubscription<T extends Service>
     {
         return isActive;
     }
+
+    private Runnable handOff(final Runnable tick)
+    {
+        final IoExecutor executor = Shortcuts.provideModule(Patchwork.class)
+                                             .getExecutor()
+                                             .getIo();
+        return () ->
+        {
+            if (!ticking.compareAndSet(false, true))
+            {
+                return;
+            }
+
+            executor.execute(() ->
+            {
+                try
+                {
+                    tick.run();
+                }
+                finally
+                {
+                    ticking.set(false);
+                }
+            });
+        };
+    }
+
+    private TickLoop getTickLoop()
+    {
+        return loop != null
+                ? loop
+                : Shortcuts.provideModule(Patchwork.class)
+                           .getTickLoop();
+    }
 }
@@ -0,0 +1,234 @@
+package fns.patchwork.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link Service} which performs the same piece of work for each tracked entity, such as every caged player, and
+ * spreads that work across several ticks.
+ * <br>
+ * The tracked entities are split into a number of shards, and each tick of the service only processes the entities of
+ * one shard, in round-robin order. Every entity is therefore processed at least once every {@link #getShardCount()}
+ * ticks of the service, and never less often than once every {@link #getMaxShards()} ticks of the service.
+ * <br>
+ * A tick of the service is not the same as a server tick. The {@link TickLoop} may defer a service by up to
+ * {@link TickLoop#MAX_CONSECUTIVE_DEFERRALS} ticks, and delays it by one more tick after it overruns its budget, so a
+ * service which is subscribed to run every tick runs at least once every {@code MAX_CONSECUTIVE_DEFERRALS + 2} server
+ * ticks. An entity of such a service is therefore processed at least once every
+ * {@code getMaxShards() * (MAX_CONSECUTIVE_DEFERRALS + 2)} server ticks. {@link TickPriority#COSMETIC} services may
+ * additionally be skipped by the {@link LoadGovernor}, so their entities have no upper bound at all.
+ * <br>
+ * {@link TickPriority#CRITICAL} services are never deferred, but a check which is spread across several ticks is still
+ * late for most entities. A critical service must therefore use a single shard, and process every entity every tick.
+ * <br>
+ * The shard count adapts to the cost of the service. When a tick takes longer than the service's budget, the work is
+ * split into one more shard, up to the maximum. When a tick with one shard fewer is projected to take less than half
+ * of the budget, the shard count is lowered again, so entities are processed as often as the budget allows.
+ * <br>
+ * Entities may be tracked and untracked from any thread, including from inside {@link #tick(Object)}; the tick always
+ * works on the set of entities which was tracked when it started.
+ *
+ * @param <E> The type of entity processed by this service.
+ */
+public abstract class ShardedService<E> extends Service
+{
+    /**
+     * The tracked entities. This array is replaced rather than modified, so ticks can iterate it without locking or
+     * allocating.
+     */
+    private volatile Object[] entities = new Object[0];
+    /**
+     * The tracked entities, for membership checks.
+     */
+    private final Set<E> members = ConcurrentHashMap.newKeySet();
+    /**
+     * The largest number of shards, and therefore the longest interval in ticks of this service between two updates of
+     * an entity.
+     */
+    private final int maxShards;
+
+    // Only touched by the ticking thread.
+    private int shards = 1;
+    private int cursor = 0;
+
+    /**
+     * Creates a new sharded service.
+     *
+     * @param name      The name of the service.
+     * @param priority  The priority class of the service.
+     * @param budget    The time budget for a single tick of the service.
+     * @param maxShards The largest number of ticks the work may be spread across. This must be 1 for a
+     *                  {@link TickPriority#CRITICAL} service.
+     * @throws IllegalArgumentException If maxShards is less than 1, or greater than 1 for a critical service.
+     */
+    protected ShardedService(final String name, final TickPriority priority, final Duration budget,
+                             final int maxShards)
+    {
+        super(name, priority, budget);
+
+        if (maxShards < 1)
+        {
+            throw new IllegalArgumentException("A sharded service requires at least one shard.");
+        }
+
+        if (priority == TickPriority.CRITICAL && maxShards > 1)
+        {
+            throw new IllegalArgumentException("A critical service must process every entity every tick.");
+        }
+
+        this.maxShards = maxShards;
+    }
+
+    /**
+     * Creates a new sharded service with the {@link #DEFAULT_BUDGET}.
+     *
+     * @param name      The name of the service.
+     * @param priority  The priority class of the service.
+     * @param maxShards The largest number of ticks the work may be spread across. This must be 1 for a
+     *                  {@link TickPriority#CRITICAL} service.
+     * @throws IllegalArgumentException If maxShards is less than 1, or greater than 1 for a critical service.
+     */
+    protected ShardedService(final String name, final TickPriority priority, final int maxShards)
+    {
+        this(name, priority, DEFAULT_BUDGET, maxShards);
+    }
+
+    /**
+     * Starts processing an entity.
+     *
+     * @param entity The entity to track.
+     * @return True if the entity was not tracked before, false otherwise.
+     */
+    public synchronized boolean track(final E entity)
+    {
+        if (!members.add(entity))
+        {
+            return false;
+        }
+
+        final Object[] updated = Arrays.copyOf(entities, entities.length + 1);
+        updated[entities.length] = entity;
+        entities = updated;
+        return true;
+    }
+
+    /**
+     * Stops processing an entity.
+     *
+     * @param entity The entity to untrack.
+     * @return True if the entity was tracked, false otherwise.
+     */
+    public synchronized boolean untrack(final E entity)
+    {
+        if (!members.remove(entity))
+        {
+            return false;
+        }
+
+        entities = Arrays.stream(entities)
+                         .filter(e -> !e.equals(entity))
+                         .toArray();
+        return true;
+    }
+
+    /**
+     * @param entity The entity to check.
+     * @return True if the entity is tracked, false otherwise.
+     */
+    public boolean isTracked(final E entity)
+    {
+        return members.contains(entity);
+    }
+
+    /**
+     * @return The number of tracked entities.
+     */
+    public int getTrackedCount()
+    {
+        return members.size();
+    }
+
+    /**
+     * @return The current number of shards, which is the number of ticks a full pass over every entity takes.
+     */
+    public int getShardCount()
+    {
+        return shards;
+    }
+
+    /**
+     * @return The largest number of shards, which is the longest interval between two updates of an entity, in ticks of
+     * this service.
+     */
+    public int getMaxShards()
+    {
+        return maxShards;
+    }
+
+    /**
+     * Processes the next shard of entities.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void tick()
+    {
+        final Object[] snapshot = entities;
+        final int size = snapshot.length;
+
+        if (size == 0)
+        {
+            cursor = 0;
+            return;
+        }
+
+        final int perTick = (size + shards - 1) / shards;
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < perTick; i++)
+        {
+            if (cursor >= size)
+            {
+                cursor = 0;
+            }
+
+            tick((E) snapshot[cursor++]);
+        }
+
+        adapt(size, perTick, System.nanoTime() - start);
+    }
+
+    /**
+     * Performs the work of this service for a single entity. This should not take longer than a small fraction of the
+     * service's budget.
+     *
+     * @param entity The entity to process.
+     */
+    protected abstract void tick(final E entity);
+
+    private void adapt(final int size, final int perTick, final long elapsed)
+    {
+        final long budget = getBudget().toNanos();
+
+        if (elapsed > budget)
+        {
+            if (shards < maxShards)
+            {
+                shards++;
+            }
+            return;
+        }
+
+        if (shards > 1)
+        {
+            final int fewer = shards - 1;
+            final long projected = elapsed / perTick * ((size + fewer - 1) / fewer);
+
+            if (projected < budget / 2)
+            {
+                shards = fewer;
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package fns.patchwork.service;
+
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * A {@link TickScheduler} with a simulated clock, for running services, tasks and the event bus without a server.
+ * <br>
+ * The clock only advances when {@link #tick()} or {@link #runTicks(long)} is called. Each tick runs every task which is
+ * due, in order of the tick it was due on and then the order it was scheduled in, so two runs with the same inputs run
+ * the same work in the same order. Asynchronous tasks are run on the thread advancing the clock as well, just like
+ * synchronous tasks, so they are deterministic too. Work scheduled while a tick is running is never run before the next
+ * tick, as on a server.
+ * <br>
+ * Work may be scheduled from any thread. A runnable which throws is logged, and does not stop the tick.
+ * <br>
+ * A typical harness installs the scheduler before creating anything which schedules work:
+ * <pre>{@code
+ * final SimulatedTickScheduler scheduler = new SimulatedTickScheduler();
+ * TickSchedulers.set(scheduler);
+ * final TickLoop loop = new TickLoop(null, new LoadGovernor(), owner -> true);
+ * loop.start();
+ * scheduler.runTicks(10_000);
+ * }</pre>
+ */
+public final class SimulatedTickScheduler implements TickScheduler
+{
+    private static final Comparator<SimulatedTask> BY_DUE_TICK =
+            Comparator.comparingLong((SimulatedTask t) -> t.nextRun)
+                      .thenComparingInt(t -> t.id);
+
+    private final PriorityQueue<SimulatedTask> queue = new PriorityQueue<>(BY_DUE_TICK);
+    private final Map<Integer, SimulatedTask> tasks = new HashMap<>();
+    private final FreedomLogger logger = FreedomLogger.getLogger("Patchwork");
+    private int nextId = 1;
+    private long currentTick = 0L;
+
+    /**
+     * Advances the clock by a single tick, and runs every task which is due.
+     */
+    public void tick()
+    {
+        final long tick;
+        synchronized (this)
+        {
+            tick = ++currentTick;
+        }
+
+        SimulatedTask task;
+        while ((task = pollDue(tick)) != null)
+        {
+            try
+            {
+                task.runnable.run();
+            }
+            catch (RuntimeException ex)
+            {
+                logger.error("Task " + task.id + " threw an exception on tick " + tick + ".");
+                logger.error(ex);
+            }
+
+            reschedule(task);
+        }
+    }
+
+    /**
+     * Advances the clock by the given number of ticks.
+     *
+     * @param ticks The number of ticks to run.
+     */
+    public void runTicks(final long ticks)
+    {
+        for (long i = 0; i < ticks; i++)
+        {
+            tick();
+        }
+    }
+
+    /**
+     * @return The number of tasks which are scheduled and not cancelled.
+     */
+    public synchronized int getPendingCount()
+    {
+        return tasks.size();
+    }
+
+    @Override
+    public BukkitTask runTask(final Plugin plugin, final Runnable runnable)
+    {
+        return schedule(plugin, runnable, 0L, -1L, true);
+    }
+
+    @Override
+    public BukkitTask runTaskLater(final Plugin plugin, final Runnable runnable, final long delay)
+    {
+        return schedule(plugin, runnable, delay, -1L, true);
+    }
+
+    @Override
+    public BukkitTask runTaskTimer(final Plugin plugin, final Runnable runnable, final long delay, final long period)
+    {
+        return schedule(plugin, runnable, delay, period, true);
+    }
+
+    @Override
+    public BukkitTask runTaskAsynchronously(final Plugin plugin, final Runnable runnable)
+    {
+        return schedule(plugin, runnable, 0L, -1L, false);
+    }
+
+    @Override
+    public BukkitTask runTaskLaterAsynchronously(final Plugin plugin, final Runnable runnable, final long delay)
+    {
+        return schedule(plugin, runnable, delay, -1L, false);
+    }
+
+    @Override
+    public BukkitTask runTaskTimerAsynchronously(final Plugin plugin, final Runnable runnable, final long delay,
+                                                 final long period)
+    {
+        return schedule(plugin, runnable, delay, period, false);
+    }
+
+    @Override
+    public synchronized void cancelTask(final int taskId)
+    {
+        final SimulatedTask task = tasks.remove(taskId);
+        if (task != null)
+        {
+            task.cancelled = true;
+            queue.remove(task);
+        }
+    }
+
+    @Override
+    public synchronized long getCurrentTick()
+    {
+        return currentTick;
+    }
+
+    private synchronized BukkitTask schedule(final Plugin plugin, final Runnable runnable, final long delay,
+                                             final long period, final boolean sync)
+    {
+        final SimulatedTask task = new SimulatedTask(nextId++, plugin, runnable, period, sync);
+        task.nextRun = currentTick + Math.max(1L, delay);
+        tasks.put(task.id, task);
+        queue.offer(task);
+        return task;
+    }
+
+    private synchronized SimulatedTask pollDue(final long tick)
+    {
+        final SimulatedTask next = queue.peek();
+        if (next == null || next.nextRun > tick)
+        {
+            return null;
+        }
+
+        return queue.poll();
+    }
+
+    private synchronized void reschedule(final SimulatedTask task)
+    {
+        if (task.cancelled)
+        {
+            return;
+        }
+
+        if (task.period <= 0L)
+        {
+            tasks.remove(task.id);
+            return;
+        }
+
+        task.nextRun = currentTick + task.period;
+        queue.offer(task);
+    }
+
+    /**
+     * A task scheduled on the simulated clock.
+     */
+    private final class SimulatedTask implements BukkitTask
+    {
+        private final int id;
+        private final Plugin owner;
+        private final Runnable runnable;
+        private final long period;
+        private final boolean sync;
+        private long nextRun;
+        private volatile boolean cancelled = false;
+
+        private SimulatedTask(final int id, final Plugin owner, final Runnable runnable, final long period,
+                              final boolean sync)
+        {
+            this.id = id;
+            this.owner = owner;
+            this.runnable = runnable;
+            this.period = period;
+            this.sync = sync;
+        }
+
+        @Override
+        public int getTaskId()
+        {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner()
+        {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync()
+        {
+            return sync;
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancelTask(id);
+        }
+    }
+}
@@ -89,6 +89,25 @@ public final class SubscriptionProvider
         return new ServiceSubscription<>(plugin, service, interval, true);
     }
 
+    /**
+     * Creates a new {@link ServiceSubscription} object that will run each tick of the given {@link Service} object on
+     * the {@link IoExecutor}, at the given interval. This should be used for services which perform blocking I/O.
+     *
+     * @param plugin   The plugin that owns the service.
+     * @param interval The interval to run the service at.
+     * @param service  The service to run.
+     * @param <S>      Type inference to maintain the service type.
+     * @return The new {@link ServiceSubscription} object.
+     */
+    @NotNull
+    @Contract(value = "_,_,_ -> new", pure = false)
+    public static final <S extends Service> ServiceSubscription<S> ioService(@NotNull final JavaPlugin plugin,
+                                                                             final long interval,
+                                                                             @NotNull final S service)
+    {
+        return new ServiceSubscription<>(plugin, service, interval, true, true);
+    }
+
     /**
      * Creates a new {@link TaskSubscription} object that will run the given {@link Task} object synchronously on the
      * main thread.
@@ -106,6 +125,26 @@ public final class SubscriptionProvider
         return new TaskSubscription<>(plugin, task, false);
     }
 
+    /**
+     * Creates a new {@link TaskSubscription} object that will run the given {@link Task} object synchronously on the
+     * main thread, staggered against the given {@link TickLoop} rather than Patchwork's. This should be used by tasks
+     * which are started before Patchwork has been registered as a module.
+     *
+     * @param plugin The plugin that owns the task.
+     * @param task   The task to run.
+     * @param loop   The tick loop whose stagger places the task, if it repeats.
+     * @param <T>    Type inference to maintain the task type.
+     * @return The new {@link TaskSubscription} object.
+     */
+    @NotNull
+    @Contract(value = "_, _, _ -> new", pure = false)
+    public static final <T extends Task> TaskSubscription<T> runSyncTask(@NotNull final JavaPlugin plugin,
+                                                                         @NotNull final T task,
+                                                                         @NotNull final TickLoop loop)
+    {
+        return new TaskSubscription<>(plugin, task, false, false, loop);
+    }
+
     /**
      * Creates a new {@link TaskSubscription} object that will run the given {@link Task} object asynchronously on the
      * main thread.
@@ -122,4 +161,21 @@ public final class SubscriptionProvider
     {
         return new TaskSubscription<>(plugin, task, true);
     }
+
+    /**
+     * Creates a new {@link TaskSubscription} object that will run the given {@link Task} object on the
+     * {@link IoExecutor}. This should be used for tasks which perform blocking I/O.
+     *
+     * @param plugin The plugin that owns the task.
+     * @param task   The task to run.
+     * @param <T>    Type inference to maintain the task type.
+     * @return The new {@link TaskSubscription} object.
+     */
+    @NotNull
+    @Contract(value = "_, _ -> new", pure = false)
+    public static final <T extends Task> TaskSubscription<T> runIoTask(@NotNull final JavaPlugin plugin,
+                                                                       @NotNull final T task)
+    {
+        return new TaskSubscription<>(plugin, task, true, true);
+    }
 }
@@ -0,0 +1,24 @@
+package fns.patchwork.service;
+
+/**
+ * The lifecycle state of a {@link ServiceSubscription} or {@link TaskSubscription} in the
+ * {@link fns.patchwork.data.ServiceTaskRegistry}.
+ * <br>
+ * A subscription starts out {@link #REGISTERED}, moves to {@link #RUNNING} when it is started, and to {@link #STOPPED}
+ * when it is stopped. A stopped subscription may be started again.
+ */
+public enum SubscriptionState
+{
+    /**
+     * The subscription is registered, but has never been started.
+     */
+    REGISTERED,
+    /**
+     * The subscription has been started, and has not been stopped since.
+     */
+    RUNNING,
+    /**
+     * The subscription has been stopped.
+     */
+    STOPPED
+}
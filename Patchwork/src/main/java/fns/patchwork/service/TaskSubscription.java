@@ -1,8 +1,11 @@
 package fns.patchwork.service;
 
-import fns.patchwork.utils.container.Pair;
+import fns.patchwork.base.Patchwork;
+import fns.patchwork.base.Registration;
+import fns.patchwork.base.Shortcuts;
+import java.time.Duration;
 import java.util.concurrent.Executor;
-import org.bukkit.Bukkit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
@@ -12,27 +15,52 @@ import org.bukkit.scheduler.BukkitTask;
  * just bukkit runnables with a bit more lenience in terms of instantiation modification and execution. It also offers a
  * more intuitive way to manage our tasks; rather than having to keep track of task ids for each {@link BukkitTask}
  * object that gets returned by the {@link BukkitScheduler}.
+ * <br>
+ * Tasks which perform blocking I/O may opt into the {@link IoExecutor}. The scheduler then only decides when the task
+ * runs, and each run is handed off to a virtual thread. A run is skipped if the previous one is still going.
+ * <br>
+ * Repeating synchronous tasks are placed on a phase by the {@link TickStagger} of Patchwork's {@link TickLoop} when
+ * they start, so tasks which share an interval do not all run on the same tick. The first run may therefore be delayed
+ * by up to one interval beyond the delay of the task.
  *
  * @param <T> The type of task.
  */
 public final class TaskSubscription<T extends Task>
 {
     /**
-     * The task that is being subscribed to.
+     * The duration after which a single run of a task is counted as an overrun by the {@link TickProfile}.
      */
-    private final T task;
+    public static final Duration PROFILE_BUDGET = Duration.ofMillis(5L);
+
     /**
-     * The task id of the task.
+     * The task that is being subscribed to.
      */
-    private final int taskId;
+    private final T task;
     /**
      * True if the task is async, false otherwise.
      */
     private final boolean async;
+    /**
+     * True if each run of the task is handed off to the {@link IoExecutor}, false otherwise.
+     */
+    private final boolean io;
+    /**
+     * True while a run of an I/O task is in progress.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
     /**
      * The executor that will execute the task.
      */
     private final Executor executor;
+    /**
+     * The {@link TickLoop} whose {@link TickStagger} places a repeating synchronous task, or null to use Patchwork's
+     * loop.
+     */
+    private final TickLoop loop;
+    /**
+     * The {@link BukkitTask} returned by the scheduler when the task was started, or null if it is not running.
+     */
+    private volatile BukkitTask scheduled;
 
     /**
      * True if the task is active, false otherwise. By default, this is set to false, and will be marked as true when
@@ -48,9 +76,41 @@ public final class TaskSubscription<T extends Task>
      * @param async  True if the task is async, false otherwise.
      */
     TaskSubscription(final JavaPlugin plugin, final T task, final boolean async)
+    {
+        this(plugin, task, async, false);
+    }
+
+    /**
+     * Creates a new task subscription. I/O tasks are always scheduled asynchronously.
+     *
+     * @param plugin The plugin which owns the task.
+     * @param task   The task that is being subscribed to.
+     * @param async  True if the task is async, false otherwise.
+     * @param io     True if each run should be handed off to the {@link IoExecutor}, false otherwise.
+     */
+    TaskSubscription(final JavaPlugin plugin, final T task, final boolean async, final boolean io)
+    {
+        this(plugin, task, async, io, null);
+    }
+
+    /**
+     * Creates a new task subscription, which is placed by the {@link TickStagger} of the provided {@link TickLoop}
+     * instead of Patchwork's loop. This allows a task to run without a server, such as on a
+     * {@link SimulatedTickScheduler}.
+     *
+     * @param plugin The plugin which owns the task, or null if the task runs without a server.
+     * @param task   The task that is being subscribed to.
+     * @param async  True if the task is async, false otherwise.
+     * @param io     True if each run should be handed off to the {@link IoExecutor}, false otherwise.
+     * @param loop   The loop whose stagger places the task, or null to use Patchwork's loop.
+     */
+    TaskSubscription(final JavaPlugin plugin, final T task, final boolean async, final boolean io,
+                     final TickLoop loop)
     {
         this.task = task;
-        this.async = async;
+        this.loop = loop;
+        this.async = async || io;
+        this.io = io;
 
         final long delay = (task.isDelayed()
                 ? task.getDelay()
@@ -59,101 +119,72 @@ public final class TaskSubscription<T extends Task>
                 ? task.getInterval()
                 : 0);
 
-        final Pair<Integer, Executor> integerExecutorPair = async
+        this.executor = this.async
                 ? getAsync(plugin, delay, period)
                 : getSync(plugin, delay, period);
-
-        this.executor = integerExecutorPair.value();
-        this.taskId = integerExecutorPair.key();
     }
 
     /**
-     * Gets the executor and task id for an async task, wrapped in a {@link Pair}&lt;{@link Integer},
-     * {@link Executor}&gt;.
-     * <br>
-     * This will return a Pair where {@link Pair#value()} is an asynchronous executor.
+     * Gets the executor for an async task. The executor keeps the {@link BukkitTask} it schedules, so the task can be
+     * cancelled when it is stopped.
      *
      * @param plugin The plugin which owns the task.
      * @param delay  The delay of the task.
      * @param period The period of the task.
-     * @return The executor and task id for an asynchronous task.
+     * @return The executor for an asynchronous task.
      */
-    private Pair<Integer, Executor> getAsync(final JavaPlugin plugin, final long delay, final long period)
+    private Executor getAsync(final JavaPlugin plugin, final long delay, final long period)
     {
         final Executor executor1;
-        final int[] tempId = new int[1];
         if (period != 0)
         {
-            executor1 = r ->
-            {
-                final BukkitTask task1 = Bukkit.getScheduler()
-                                               .runTaskTimerAsynchronously(plugin, r, delay, period);
-                tempId[0] = task1.getTaskId();
-            };
+            executor1 = r -> this.scheduled = TickSchedulers.get()
+                                                            .runTaskTimerAsynchronously(plugin, r, delay, period);
         } else if (delay != 0)
         {
-            executor1 = r ->
-            {
-                final BukkitTask task1 = Bukkit.getScheduler()
-                                               .runTaskLaterAsynchronously(plugin, r, delay);
-                tempId[0] = task1.getTaskId();
-            };
+            executor1 = r -> this.scheduled = TickSchedulers.get()
+                                                            .runTaskLaterAsynchronously(plugin, r, delay);
         } else
         {
-            executor1 = r ->
-            {
-                final BukkitTask task1 = Bukkit.getScheduler()
-                                               .runTaskAsynchronously(plugin, r);
-                tempId[0] = task1.getTaskId();
-            };
+            executor1 = r -> this.scheduled = TickSchedulers.get()
+                                                            .runTaskAsynchronously(plugin, r);
         }
 
-        return new Pair<>(tempId[0], executor1);
+        return executor1;
     }
 
     /**
-     * Gets the executor and task id for a sync task, wrapped in a {@link Pair}&lt;{@link Integer},
-     * {@link Executor}&gt;.
-     * <br>
-     * This will return a Pair where {@link Pair#value()} is a synchronous executor.
+     * Gets the executor for a sync task. The executor keeps the {@link BukkitTask} it schedules, so the task can be
+     * cancelled when it is stopped.
      *
      * @param plugin The plugin which owns the task.
      * @param delay  The delay of the task.
      * @param period The period of the task.
-     * @return The executor and task id for a synchronous task.
+     * @return The executor for a synchronous task.
      */
-    private Pair<Integer, Executor> getSync(final JavaPlugin plugin, final long delay, final long period)
+    private Executor getSync(final JavaPlugin plugin, final long delay, final long period)
     {
         final Executor executor1;
-        final int[] tempId = new int[1];
 
         if (period != 0)
         {
             executor1 = r ->
             {
-                final BukkitTask task1 = Bukkit.getScheduler()
-                                               .runTaskTimer(plugin, r, delay, period);
-                tempId[0] = task1.getTaskId();
+                final long first = staggerDelay(delay, period);
+                this.scheduled = TickSchedulers.get()
+                                               .runTaskTimer(plugin, r, first, period);
             };
         } else if (delay != 0)
         {
-            executor1 = r ->
-            {
-                final BukkitTask task1 = Bukkit.getScheduler()
-                                               .runTaskLater(plugin, r, delay);
-                tempId[0] = task1.getTaskId();
-            };
+            executor1 = r -> this.scheduled = TickSchedulers.get()
+                                                            .runTaskLater(plugin, r, delay);
         } else
         {
-            executor1 = r ->
-            {
-                final BukkitTask task1 = Bukkit.getScheduler()
-                                               .runTask(plugin, r);
-                tempId[0] = task1.getTaskId();
-            };
+            executor1 = r -> this.scheduled = TickSchedulers.get()
+                                                            .runTask(plugin, r);
         }
 
-        return new Pair<>(tempId[0], executor1);
+        return executor1;
     }
 
     /**
@@ -162,7 +193,27 @@ public final class TaskSubscription<T extends Task>
     public void start()
     {
         this.isActive = true;
-        executor.execute(task);
+
+        final TickProfile profile = Registration.getProfilerRegistry()
+                                                .getProfile(TickProfile.Kind.TASK, task.getName(), PROFILE_BUDGET);
+        final Runnable run = () ->
+        {
+            final long start = System.nanoTime();
+            final TickProfile enclosing = TickWatchdog.enter(profile);
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                TickWatchdog.exit(enclosing);
+                profile.record(System.nanoTime() - start);
+            }
+        };
+
+        executor.execute(io
+                ? handOff(run)
+                : run);
     }
 
     /**
@@ -171,16 +222,31 @@ public final class TaskSubscription<T extends Task>
     public void stop()
     {
         this.isActive = false;
-        Bukkit.getScheduler()
-              .cancelTask(this.getTaskId());
+
+        final BukkitTask current = this.scheduled;
+        if (current == null)
+        {
+            return;
+        }
+
+        current.cancel();
+        this.scheduled = null;
+
+        if (!async && task.isRepeating())
+        {
+            getStagger().release(this);
+        }
     }
 
     /**
-     * @return The task id of the task.
+     * @return The task id of the task, or -1 if the task is not running.
      */
     public int getTaskId()
     {
-        return taskId;
+        final BukkitTask current = this.scheduled;
+        return current == null
+                ? -1
+                : current.getTaskId();
     }
 
     /**
@@ -199,6 +265,14 @@ public final class TaskSubscription<T extends Task>
         return async;
     }
 
+    /**
+     * @return True if each run of the task is handed off to the {@link IoExecutor}, false otherwise.
+     */
+    public boolean isIo()
+    {
+        return io;
+    }
+
     /**
      * @return The executor that will execute the task.
      */
@@ -214,4 +288,57 @@ public final class TaskSubscription<T extends Task>
     {
         return isActive;
     }
+
+    /**
+     * Places this task on a phase, and extends the delay so the first run lands on it.
+     *
+     * @param delay  The delay of the task.
+     * @param period The period of the task.
+     * @return The delay until the first run on the phase.
+     */
+    private long staggerDelay(final long delay, final long period)
+    {
+        final TickProfile profile = Registration.getProfilerRegistry()
+                                                .getProfile(TickProfile.Kind.TASK, task.getName(), PROFILE_BUDGET);
+        final long phase = getStagger().place(this, period, profile::estimateNanos, false);
+        final long now = TickSchedulers.get()
+                                       .getCurrentTick();
+
+        return TickStagger.align(now + delay, period, phase) - now;
+    }
+
+    private TickStagger getStagger()
+    {
+        final TickLoop tickLoop = loop != null
+                ? loop
+                : Shortcuts.provideModule(Patchwork.class)
+                           .getTickLoop();
+        return tickLoop.getStagger();
+    }
+
+    private Runnable handOff(final Runnable run)
+    {
+        final IoExecutor ioExecutor = Shortcuts.provideModule(Patchwork.class)
+                                               .getExecutor()
+                                               .getIo();
+        return () ->
+        {
+            if (!running.compareAndSet(false, true))
+            {
+                return;
+            }
+
+            ioExecutor.execute(() ->
+            {
+                try
+                {
+                    run.run();
+                }
+                finally
+                {
+                    running.set(false);
+                }
+            });
+        };
+    }
 }
@@ -0,0 +1,397 @@
+package fns.patchwork.service;
+
+import fns.patchwork.base.Registration;
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Predicate;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Ticks every synchronous {@link Service} from a single scheduled task.
+ * <br>
+ * Services are ticked in the order of their {@link TickPriority}, and services of the same priority class are ticked in
+ * the order they were started. The loop has a budget for the whole tick: once it is spent, the remaining services are
+ * deferred to the next tick, where they are due again. Each service also has its own budget, and a service which
+ * overruns it is deferred by one extra tick before it runs again. {@link TickPriority#CRITICAL} services are never
+ * deferred, and no service is deferred for more than {@link #MAX_CONSECUTIVE_DEFERRALS} ticks in a row.
+ * <br>
+ * Services which are not ticked every tick are given a phase by the loop's {@link TickStagger}, so services which share
+ * an interval are spread across the ticks of that interval instead of all running on the same tick. The phases are
+ * placed again whenever a service is added or removed, and every {@link #REBALANCE_INTERVAL} ticks as the measured
+ * cost of each service changes. A deferred service runs as soon as possible, and then returns to its phase.
+ * <br>
+ * {@link TickPriority#COSMETIC} services follow the {@link DegradationLevel} of the loop's {@link LoadGovernor}: while
+ * the server is under load, some or all of their due ticks are skipped.
+ * <br>
+ * This class is <b>not</b> thread-safe for ticking, and should only be started and stopped from the main server thread.
+ * Services may be added and removed from any thread, including from inside a service tick.
+ */
+public final class TickLoop implements Runnable
+{
+    /**
+     * The default budget for a whole tick of the loop.
+     */
+    public static final Duration DEFAULT_TICK_BUDGET = Duration.ofMillis(20L);
+    /**
+     * The number of consecutive ticks a service may be deferred by the tick budget before it is run regardless, so low
+     * priority services are slowed down under load rather than starved.
+     */
+    public static final int MAX_CONSECUTIVE_DEFERRALS = 20;
+    /**
+     * The interval, in ticks, at which the phases of the services are placed again using their measured cost.
+     */
+    public static final long REBALANCE_INTERVAL = 1200L;
+
+    private static final Comparator<Entry> BY_PRIORITY = Comparator.comparing(e -> e.service.getPriority());
+
+    private final JavaPlugin plugin;
+    private final FreedomLogger logger = FreedomLogger.getLogger("Patchwork");
+    private final TickStagger stagger = new TickStagger();
+    private final LoadGovernor governor;
+    /**
+     * Decides whether the plugin which owns a service is still alive. Services of a dead owner are removed from the
+     * loop instead of being ticked.
+     */
+    private final Predicate<? super JavaPlugin> ownerAlive;
+    /**
+     * The scheduled entries, sorted by priority. This array is replaced rather than modified, so the loop can iterate
+     * it without locking or allocating.
+     */
+    private volatile Entry[] entries = new Entry[0];
+    private volatile long tickBudgetNanos = DEFAULT_TICK_BUDGET.toNanos();
+    private BukkitTask task;
+    private long currentTick = 0L;
+    private long deferrals = 0L;
+    private long phaseVersion = -1L;
+
+    /**
+     * Creates a new tick loop owned by the provided plugin. The loop does not run until {@link #start()} is called.
+     *
+     * @param plugin The plugin which owns the loop.
+     */
+    public TickLoop(final JavaPlugin plugin)
+    {
+        this(plugin, new LoadGovernor());
+    }
+
+    /**
+     * Creates a new tick loop owned by the provided plugin, which degrades cosmetic services according to the provided
+     * governor. The loop does not run until {@link #start()} is called.
+     *
+     * @param plugin   The plugin which owns the loop.
+     * @param governor The governor which decides how often cosmetic services run.
+     */
+    public TickLoop(final JavaPlugin plugin, final LoadGovernor governor)
+    {
+        this(plugin, governor, JavaPlugin::isEnabled);
+    }
+
+    /**
+     * Creates a new tick loop which decides whether the owner of a service is alive with the provided predicate,
+     * instead of asking the owning plugin. This allows the loop to run without a server, such as on a
+     * {@link SimulatedTickScheduler}, where there is no live plugin to own the loop or its services. The loop does not
+     * run until {@link #start()} is called.
+     *
+     * @param plugin     The plugin which owns the loop, or null if the loop runs without a server.
+     * @param governor   The governor which decides how often cosmetic services run.
+     * @param ownerAlive Tests whether the owner of a service is still alive. The owner may be null.
+     */
+    public TickLoop(final JavaPlugin plugin, final LoadGovernor governor,
+                    final Predicate<? super JavaPlugin> ownerAlive)
+    {
+        this.plugin = plugin;
+        this.governor = governor;
+        this.ownerAlive = ownerAlive;
+    }
+
+    /**
+     * Schedules the loop to run every tick.
+     */
+    public void start()
+    {
+        if (task == null)
+        {
+            task = TickSchedulers.get()
+                                 .runTaskTimer(plugin, this, 1L, 1L);
+        }
+    }
+
+    /**
+     * Cancels the loop and removes every service from it.
+     */
+    public void stop()
+    {
+        if (task != null)
+        {
+            task.cancel();
+            task = null;
+        }
+
+        synchronized (this)
+        {
+            for (final Entry entry : entries)
+            {
+                stagger.release(entry);
+            }
+            entries = new Entry[0];
+        }
+    }
+
+    /**
+     * @return The id of the scheduled task running this loop, or -1 if the loop is not running.
+     */
+    public int getTaskId()
+    {
+        return task == null
+                ? -1
+                : task.getTaskId();
+    }
+
+    /**
+     * Sets the budget for a whole tick of the loop.
+     *
+     * @param budget The tick budget.
+     */
+    public void setTickBudget(final Duration budget)
+    {
+        this.tickBudgetNanos = budget.toNanos();
+    }
+
+    /**
+     * @return The {@link TickStagger} which places the phases of the services in this loop. Periodic tasks on the main
+     *         thread are placed by the same stagger, so they are spread across the same ticks.
+     */
+    public TickStagger getStagger()
+    {
+        return stagger;
+    }
+
+    /**
+     * @return The {@link LoadGovernor} which decides how often cosmetic services run.
+     */
+    public LoadGovernor getGovernor()
+    {
+        return governor;
+    }
+
+    /**
+     * @return The server tick the loop last ran on.
+     */
+    public long getCurrentTick()
+    {
+        return currentTick;
+    }
+
+    /**
+     * @return The number of times a service was deferred because the tick budget was spent.
+     */
+    public long getDeferrals()
+    {
+        return deferrals;
+    }
+
+    /**
+     * @return The number of services in the loop.
+     */
+    public int size()
+    {
+        return entries.length;
+    }
+
+    @Override
+    public void run()
+    {
+        final long deadline = System.nanoTime() + tickBudgetNanos;
+        final long tick = TickSchedulers.get()
+                                        .getCurrentTick();
+        currentTick = tick;
+
+        if (tick % REBALANCE_INTERVAL == 0L)
+        {
+            stagger.rebalance();
+        }
+
+        final DegradationLevel level = governor.getLevel();
+        final Entry[] snapshot = entries;
+        final long version = stagger.getVersion();
+        if (version != phaseVersion)
+        {
+            phaseVersion = version;
+            realign(snapshot, tick);
+        }
+
+        for (final Entry entry : snapshot)
+        {
+            if (tick < entry.nextTick)
+            {
+                continue;
+            }
+
+            if (!ownerAlive.test(entry.owner))
+            {
+                remove(entry.subscription);
+                continue;
+            }
+
+            if (!entry.critical
+                    && entry.deferred < MAX_CONSECUTIVE_DEFERRALS
+                    && System.nanoTime() >= deadline)
+            {
+                // Leave nextTick untouched, so the service is due again on the next tick.
+                entry.deferred++;
+                deferrals++;
+                continue;
+            }
+
+            if (entry.cosmetic && !level.admits(entry.due++))
+            {
+                entry.skip(tick);
+                continue;
+            }
+
+            entry.tick(tick);
+        }
+    }
+
+    private void realign(final Entry[] snapshot, final long tick)
+    {
+        for (final Entry entry : snapshot)
+        {
+            if (entry.interval > 1L)
+            {
+                final long phase = stagger.getPhase(entry);
+                if (phase >= 0L)
+                {
+                    entry.phase = phase;
+                    entry.nextTick = TickStagger.align(tick, entry.interval, phase);
+                }
+            }
+        }
+    }
+
+    synchronized void add(final JavaPlugin owner, final ServiceSubscription<?> subscription, final long interval)
+    {
+        for (final Entry entry : entries)
+        {
+            if (entry.subscription == subscription)
+            {
+                return;
+            }
+        }
+
+        final Entry entry = new Entry(owner, subscription, interval, currentTick + 1);
+        if (entry.interval > 1L)
+        {
+            entry.phase = stagger.place(entry, entry.interval, entry.profile::estimateNanos, true);
+            entry.nextTick = TickStagger.align(entry.nextTick, entry.interval, entry.phase);
+        }
+
+        final Entry[] updated = Arrays.copyOf(entries, entries.length + 1);
+        updated[entries.length] = entry;
+        // Arrays.sort is stable for objects, so services keep their start order within a priority class.
+        Arrays.sort(updated, BY_PRIORITY);
+        entries = updated;
+    }
+
+    synchronized void remove(final ServiceSubscription<?> subscription)
+    {
+        for (final Entry entry : entries)
+        {
+            if (entry.subscription == subscription)
+            {
+                stagger.release(entry);
+            }
+        }
+
+        entries = Arrays.stream(entries)
+                        .filter(e -> e.subscription != subscription)
+                        .toArray(Entry[]::new);
+    }
+
+    /**
+     * A service scheduled in the loop. Only the loop thread touches the mutable fields.
+     */
+    private final class Entry
+    {
+        private final JavaPlugin owner;
+        private final ServiceSubscription<?> subscription;
+        private final Service service;
+        private final long interval;
+        private final long budgetNanos;
+        private final boolean critical;
+        private final boolean cosmetic;
+        private final TickProfile profile;
+        private long nextTick;
+        private long phase = 0L;
+        private int deferred = 0;
+        private long due = 0L;
+
+        private Entry(final JavaPlugin owner, final ServiceSubscription<?> subscription, final long interval,
+                      final long firstTick)
+        {
+            this.owner = owner;
+            this.subscription = subscription;
+            this.service = subscription.getService();
+            this.interval = Math.max(1L, interval);
+            this.budgetNanos = service.getBudget()
+                                      .toNanos();
+            this.critical = service.getPriority() == TickPriority.CRITICAL;
+            this.cosmetic = service.getPriority() == TickPriority.COSMETIC;
+            this.profile = Registration.getProfilerRegistry()
+                                       .getProfile(TickProfile.Kind.SERVICE, service.getName(), service.getBudget());
+            this.nextTick = firstTick;
+        }
+
+        private void tick(final long tick)
+        {
+            final long start = System.nanoTime();
+            final TickProfile enclosing = TickWatchdog.enter(profile);
+            try
+            {
+                service.tick();
+            }
+            catch (RuntimeException ex)
+            {
+                logger.error("Service " + service.getName() + " threw an exception while ticking.");
+                logger.error(ex);
+            }
+            finally
+            {
+                TickWatchdog.exit(enclosing);
+            }
+
+            final long elapsed = System.nanoTime() - start;
+            profile.record(elapsed);
+
+            schedule(tick);
+
+            // An overrun slips the next run by a single tick. The slip is added after aligning, so a staggered service
+            // is not pushed back to its next phase, and returns to its phase on the run after.
+            if (!critical && elapsed > budgetNanos)
+            {
+                nextTick++;
+            }
+        }
+
+        private void skip(final long tick)
+        {
+            schedule(tick);
+        }
+
+        /**
+         * Schedules the next run on the first tick after the given tick which falls on the phase of the service. A
+         * service which ran late, because it was deferred or slipped, therefore returns to its phase instead of waiting
+         * a whole interval from the late run.
+         */
+        private void schedule(final long last)
+        {
+            deferred = 0;
+            nextTick = interval == 1L
+                    ? last + 1L
+                    : TickStagger.align(last + 1L, interval, phase);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package fns.patchwork.service;
+
+/**
+ * The priority class of a synchronous {@link Service} within the {@link TickLoop}. Services are ticked in the order of
+ * their priority class, so higher priority services always run before lower priority services in the same tick.
+ */
+public enum TickPriority
+{
+    /**
+     * Critical services, such as punishments, which must run on every due tick. Critical services are never deferred,
+     * even when the tick loop has exhausted its budget or the service overruns its own budget.
+     */
+    CRITICAL,
+    /**
+     * High priority services, which run before any normal priority service.
+     */
+    HIGH,
+    /**
+     * The default priority class.
+     */
+    NORMAL,
+    /**
+     * Low priority services, which are the first to be deferred when a tick runs out of time.
+     */
+    LOW,
+    /**
+     * Cosmetic services, such as particle trails, which have no effect on gameplay. Cosmetic services run after every
+     * other service, and are ticked less often or suspended by the {@link LoadGovernor} while the server is under load.
+     */
+    COSMETIC
+}
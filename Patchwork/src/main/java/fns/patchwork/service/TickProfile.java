@@ -0,0 +1,190 @@
+package fns.patchwork.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Records the execution time of a single {@link Service}, {@link Task} or command.
+ * <br>
+ * Every run updates the call count, total time, maximum time and overrun count, stores the duration in a fixed size
+ * ring buffer of primitive samples, and counts it in a latency histogram. Recording a run does not allocate;
+ * percentiles are only computed from the ring buffer when a {@link ProfileSnapshot} is taken. Work which was refused
+ * instead of run, such as a rate limited command, is counted separately with {@link #reject()}.
+ * <br>
+ * Profiles may be recorded from any thread. Recording takes an uncontended lock, since each profile is normally only
+ * updated by the thread which runs its service or task.
+ */
+public final class TickProfile
+{
+    /**
+     * The number of recent samples kept for percentile calculations.
+     */
+    public static final int SAMPLE_SIZE = 512;
+    /**
+     * The number of latency histogram buckets. Bucket {@code i} counts runs which took from {@code 2^i} up to
+     * {@code 2^(i+1)} microseconds; the first bucket also counts shorter runs, and the last bucket also counts longer
+     * runs.
+     */
+    public static final int HISTOGRAM_BUCKETS = 24;
+
+    private final Kind kind;
+    private final String name;
+    private final long budgetNanos;
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private final long[] histogram = new long[HISTOGRAM_BUCKETS];
+    private int cursor = 0;
+    private long count = 0L;
+    private long totalNanos = 0L;
+    private long maxNanos = 0L;
+    private long overruns = 0L;
+    private long rejections = 0L;
+
+    /**
+     * Creates a new profile. Profiles should be obtained from the {@link fns.patchwork.data.ProfilerRegistry}, so each
+     * service or task only has one.
+     *
+     * @param kind   The kind of work to profile.
+     * @param name   The name of the service or task.
+     * @param budget The duration after which a run is counted as an overrun.
+     */
+    public TickProfile(final Kind kind, final String name, final Duration budget)
+    {
+        this.kind = kind;
+        this.name = name;
+        this.budgetNanos = budget.toNanos();
+    }
+
+    /**
+     * Records a single run.
+     *
+     * @param nanos The duration of the run, in nanoseconds.
+     */
+    public synchronized void record(final long nanos)
+    {
+        samples[cursor] = nanos;
+        cursor = (cursor + 1) % SAMPLE_SIZE;
+        count++;
+        totalNanos += nanos;
+        histogram[bucket(nanos)]++;
+
+        if (nanos > maxNanos)
+        {
+            maxNanos = nanos;
+        }
+
+        if (nanos > budgetNanos)
+        {
+            overruns++;
+        }
+    }
+
+    /**
+     * Records a run which was refused instead of run.
+     */
+    public synchronized void reject()
+    {
+        rejections++;
+    }
+
+    /**
+     * Clears every recorded run.
+     */
+    public synchronized void reset()
+    {
+        Arrays.fill(samples, 0L);
+        Arrays.fill(histogram, 0L);
+        cursor = 0;
+        count = 0L;
+        totalNanos = 0L;
+        maxNanos = 0L;
+        overruns = 0L;
+        rejections = 0L;
+    }
+
+    /**
+     * Estimates the cost of a single run, without taking a snapshot.
+     *
+     * @return The average duration of a run in nanoseconds, or the budget if no run has been recorded yet.
+     */
+    public synchronized long estimateNanos()
+    {
+        return count == 0L
+                ? budgetNanos
+                : totalNanos / count;
+    }
+
+    /**
+     * Takes a snapshot of this profile. The percentiles are calculated from the most recent {@link #SAMPLE_SIZE} runs.
+     *
+     * @return The snapshot.
+     */
+    public ProfileSnapshot snapshot()
+    {
+        final long[] sorted;
+        final long snapshotCount;
+        final long snapshotTotal;
+        final long snapshotMax;
+        final long snapshotOverruns;
+        final long snapshotRejections;
+        final long[] snapshotHistogram;
+
+        synchronized (this)
+        {
+            sorted = Arrays.copyOf(samples, (int) Math.min(count, SAMPLE_SIZE));
+            snapshotCount = count;
+            snapshotTotal = totalNanos;
+            snapshotMax = maxNanos;
+            snapshotOverruns = overruns;
+            snapshotRejections = rejections;
+            snapshotHistogram = histogram.clone();
+        }
+
+        Arrays.sort(sorted);
+        return new ProfileSnapshot(kind, name, snapshotCount, snapshotTotal, percentile(sorted, 0.50),
+                                   percentile(sorted, 0.99), snapshotMax, snapshotOverruns, snapshotRejections,
+                                   snapshotHistogram);
+    }
+
+    public Kind getKind()
+    {
+        return kind;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    private static int bucket(final long nanos)
+    {
+        final long micros = nanos / 1_000L;
+        return micros <= 1L
+                ? 0
+                : Math.min(HISTOGRAM_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static long percentile(final long[] sorted, final double percentile)
+    {
+        if (sorted.length == 0)
+        {
+            return 0L;
+        }
+
+        final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * The kind of work a profile measures.
+     */
+    public enum Kind
+    {
+        SERVICE,
+        TASK,
+        /**
+         * The time work spends waiting in a queue before it runs, rather than the time it takes to run.
+         */
+        QUEUE,
+        COMMAND
+    }
+}
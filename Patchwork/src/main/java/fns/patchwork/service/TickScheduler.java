@@ -0,0 +1,89 @@
+package fns.patchwork.service;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Schedules work on server ticks. This is the subset of the {@link BukkitScheduler} which Patchwork uses, so that
+ * services, tasks and executors can be run without a live server.
+ * <br>
+ * On a server, {@link BukkitTickScheduler} passes every call to the Bukkit scheduler. A
+ * {@link SimulatedTickScheduler} instead keeps its own deterministic clock, which advances only when it is told to, so
+ * thousands of ticks can be run in a test or benchmark. The scheduler in use is obtained from
+ * {@link TickSchedulers#get()}.
+ */
+public interface TickScheduler
+{
+    /**
+     * Runs a runnable on the main thread on the next tick.
+     *
+     * @param plugin   The plugin which owns the task.
+     * @param runnable The runnable to run.
+     * @return The scheduled task.
+     */
+    BukkitTask runTask(Plugin plugin, Runnable runnable);
+
+    /**
+     * Runs a runnable on the main thread after a delay.
+     *
+     * @param plugin   The plugin which owns the task.
+     * @param runnable The runnable to run.
+     * @param delay    The delay, in ticks.
+     * @return The scheduled task.
+     */
+    BukkitTask runTaskLater(Plugin plugin, Runnable runnable, long delay);
+
+    /**
+     * Runs a runnable on the main thread repeatedly.
+     *
+     * @param plugin   The plugin which owns the task.
+     * @param runnable The runnable to run.
+     * @param delay    The delay before the first run, in ticks.
+     * @param period   The period between runs, in ticks.
+     * @return The scheduled task.
+     */
+    BukkitTask runTaskTimer(Plugin plugin, Runnable runnable, long delay, long period);
+
+    /**
+     * Runs a runnable off the main thread on the next tick.
+     *
+     * @param plugin   The plugin which owns the task.
+     * @param runnable The runnable to run.
+     * @return The scheduled task.
+     */
+    BukkitTask runTaskAsynchronously(Plugin plugin, Runnable runnable);
+
+    /**
+     * Runs a runnable off the main thread after a delay.
+     *
+     * @param plugin   The plugin which owns the task.
+     * @param runnable The runnable to run.
+     * @param delay    The delay, in ticks.
+     * @return The scheduled task.
+     */
+    BukkitTask runTaskLaterAsynchronously(Plugin plugin, Runnable runnable, long delay);
+
+    /**
+     * Runs a runnable off the main thread repeatedly.
+     *
+     * @param plugin   The plugin which owns the task.
+     * @param runnable The runnable to run.
+     * @param delay    The delay before the first run, in ticks.
+     * @param period   The period between runs, in ticks.
+     * @return The scheduled task.
+     */
+    BukkitTask runTaskTimerAsynchronously(Plugin plugin, Runnable runnable, long delay, long period);
+
+    /**
+     * Cancels a scheduled task. Cancelling a task which does not exist does nothing.
+     *
+     * @param taskId The id of the task.
+     */
+    void cancelTask(int taskId);
+
+    /**
+     * @return The current server tick.
+     */
+    long getCurrentTick();
+}
@@ -0,0 +1,43 @@
+package fns.patchwork.service;
+
+/**
+ * Holds the {@link TickScheduler} used by Patchwork's services, tasks and executors.
+ * <br>
+ * The {@link BukkitTickScheduler} is used by default. A test or benchmark may install a {@link SimulatedTickScheduler}
+ * before creating any services, and drive it tick by tick.
+ */
+public final class TickSchedulers
+{
+    private static volatile TickScheduler scheduler = new BukkitTickScheduler();
+
+    private TickSchedulers()
+    {
+        throw new AssertionError();
+    }
+
+    /**
+     * @return The scheduler in use.
+     */
+    public static TickScheduler get()
+    {
+        return scheduler;
+    }
+
+    /**
+     * Replaces the scheduler in use. Work which was already scheduled stays with the previous scheduler.
+     *
+     * @param scheduler The scheduler to use.
+     */
+    public static void set(final TickScheduler scheduler)
+    {
+        TickSchedulers.scheduler = scheduler;
+    }
+
+    /**
+     * Restores the {@link BukkitTickScheduler}.
+     */
+    public static void reset()
+    {
+        set(new BukkitTickScheduler());
+    }
+}
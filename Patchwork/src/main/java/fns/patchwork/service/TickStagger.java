@@ -0,0 +1,259 @@
+package fns.patchwork.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Assigns a phase to periodic work, so work which shares a period does not all run on the same tick.
+ * <br>
+ * The phase of a piece of work is the residue of the server tick it runs on, modulo its period. Each piece of work is
+ * placed on the phase where the least measured cost already runs. Work running on a different period counts towards a
+ * phase in proportion to how often the two actually land on the same tick, so a task every 40 ticks and a task every
+ * 20 ticks are spread as well.
+ * <br>
+ * Work is either <b>movable</b> or <b>fixed</b>. Movable work, such as the services in the {@link TickLoop}, is placed
+ * again whenever work is added or removed, and when {@link #rebalance()} is called, in order of descending cost.
+ * Fixed work, such as a task already scheduled with Bukkit, keeps the phase it was given, and only counts towards the
+ * load of the other phases. Work is only moved to another phase if that phase is at least
+ * {@link #MOVE_THRESHOLD_PERCENT}% cheaper, so changes in measured cost do not move work back and forth.
+ * <br>
+ * This class is thread-safe.
+ */
+public final class TickStagger
+{
+    /**
+     * How much cheaper, in percent, another phase must be before movable work is moved to it.
+     */
+    public static final int MOVE_THRESHOLD_PERCENT = 10;
+
+    private final Map<Object, Claim> claims = new LinkedHashMap<>();
+    /**
+     * Incremented every time the phase of movable work changes.
+     */
+    private volatile long version = 0L;
+
+    /**
+     * Places a piece of periodic work. If the work is already placed, its current phase is returned.
+     *
+     * @param key     The key identifying the work.
+     * @param period  The period of the work, in ticks.
+     * @param cost    The measured cost of a single run, in nanoseconds.
+     * @param movable Whether the phase of the work may be changed later.
+     * @return The phase of the work, between 0 (inclusive) and the period (exclusive).
+     */
+    public synchronized long place(final Object key, final long period, final LongSupplier cost,
+                                   final boolean movable)
+    {
+        final Claim existing = claims.get(key);
+        if (existing != null)
+        {
+            return existing.phase;
+        }
+
+        final Claim claim = new Claim(Math.max(1L, period), cost, movable);
+        claim.cost = cost.getAsLong();
+        claim.phase = cheapestPhase(claim, -1L);
+        claims.put(key, claim);
+
+        if (movable)
+        {
+            rebalance(claim.period);
+        }
+
+        return claim.phase;
+    }
+
+    /**
+     * Removes a piece of work, and places the remaining movable work which shares its period again.
+     *
+     * @param key The key identifying the work.
+     */
+    public synchronized void release(final Object key)
+    {
+        final Claim claim = claims.remove(key);
+        if (claim != null)
+        {
+            rebalance(claim.period);
+        }
+    }
+
+    /**
+     * Measures the cost of every piece of work again, and places all movable work again.
+     */
+    public synchronized void rebalance()
+    {
+        refreshCosts();
+        rebalance(0L);
+    }
+
+    /**
+     * @param key The key identifying the work.
+     * @return The phase of the work, or -1 if it is not placed.
+     */
+    public synchronized long getPhase(final Object key)
+    {
+        final Claim claim = claims.get(key);
+        return claim == null
+                ? -1L
+                : claim.phase;
+    }
+
+    /**
+     * @return A number which changes every time the phase of movable work changes.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @return The number of placed pieces of work.
+     */
+    public synchronized int size()
+    {
+        return claims.size();
+    }
+
+    /**
+     * Finds the first tick on or after the given tick which falls on the given phase.
+     *
+     * @param tick   The earliest tick.
+     * @param period The period, in ticks.
+     * @param phase  The phase.
+     * @return The first tick on or after {@code tick} which is congruent to {@code phase} modulo {@code period}.
+     */
+    public static long align(final long tick, final long period, final long phase)
+    {
+        return tick + Math.floorMod(phase - tick, period);
+    }
+
+    private void refreshCosts()
+    {
+        for (final Claim claim : claims.values())
+        {
+            claim.cost = claim.costSupplier.getAsLong();
+        }
+    }
+
+    /**
+     * Places the movable work again, in order of descending cost.
+     *
+     * @param period The period of the work to place again, or 0 for all work.
+     */
+    private void rebalance(final long period)
+    {
+        final List<Claim> movable = new ArrayList<>();
+        for (final Claim claim : claims.values())
+        {
+            if (claim.movable && (period == 0L || claim.period == period))
+            {
+                movable.add(claim);
+            }
+        }
+
+        movable.sort(Comparator.comparingLong((Claim c) -> c.cost)
+                               .reversed());
+
+        // Lift every movable claim first, then put them back one by one, so each sees only the work placed before it.
+        for (final Claim claim : movable)
+        {
+            claim.placed = false;
+        }
+
+        boolean changed = false;
+        for (final Claim claim : movable)
+        {
+            final long phase = cheapestPhase(claim, claim.phase);
+            changed |= phase != claim.phase;
+            claim.phase = phase;
+            claim.placed = true;
+        }
+
+        if (changed)
+        {
+            version++;
+        }
+    }
+
+    /**
+     * Finds the phase of the given claim with the least load from the other placed claims.
+     *
+     * @param claim   The claim to place.
+     * @param current The current phase of the claim, or -1 if it has none. The current phase is kept unless another
+     *                phase is at least {@link #MOVE_THRESHOLD_PERCENT}% cheaper.
+     * @return The phase.
+     */
+    private long cheapestPhase(final Claim claim, final long current)
+    {
+        final long period = claim.period;
+        if (period == 1L)
+        {
+            return 0L;
+        }
+
+        final double[] load = new double[(int) period];
+        for (final Claim other : claims.values())
+        {
+            if (other == claim || !other.placed || other.period == 1L)
+            {
+                continue;
+            }
+
+            // The fraction of this claim's runs which land on the same tick as one of the other claim's runs.
+            final long gcd = gcd(period, other.period);
+            final double share = (double) other.cost * gcd / other.period;
+            for (long phase = Math.floorMod(other.phase, gcd); phase < period; phase += gcd)
+            {
+                load[(int) phase] += share;
+            }
+        }
+
+        long best = 0L;
+        for (int phase = 1; phase < period; phase++)
+        {
+            if (load[phase] < load[(int) best])
+            {
+                best = phase;
+            }
+        }
+
+        if (current >= 0L && current < period
+                && load[(int) best] * 100.0 >= load[(int) current] * (100 - MOVE_THRESHOLD_PERCENT))
+        {
+            return current;
+        }
+
+        return best;
+    }
+
+    private static long gcd(final long a, final long b)
+    {
+        return b == 0L
+                ? a
+                : gcd(b, a % b);
+    }
+
+    /**
+     * A placed piece of work. Only accessed while holding the lock of the stagger.
+     */
+    private static final class Claim
+    {
+        private final long period;
+        private final LongSupplier costSupplier;
+        private final boolean movable;
+        private long cost;
+        private long phase = -1L;
+        private boolean placed = true;
+
+        private Claim(final long period, final LongSupplier costSupplier, final boolean movable)
+        {
+            this.period = period;
+            this.costSupplier = costSupplier;
+            this.movable = movable;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package fns.patchwork.service;
+
+import fns.patchwork.utils.logging.FreedomLogger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watches the main server thread for services, tasks and commands which run for too long, and samples the stack of the
+ * main thread while they do.
+ * <br>
+ * Patchwork marks the main thread with the {@link TickProfile} of the service, task or command it is about to run by
+ * calling {@link #enter(TickProfile)}, and clears the mark again with {@link #exit(TickProfile)}. Marking only writes a
+ * few volatile fields, so it is cheap enough to do on every tick.
+ * <br>
+ * A daemon thread checks the mark every {@link #getSampleInterval() sample interval}. Once the main thread has been
+ * inside the same callback for longer than the {@link #getThreshold() threshold}, the stack of the main thread is
+ * sampled on every check until the callback returns. Each sample is recorded as a collapsed stack, with the kind and
+ * name of the callback as the root frame, so {@link #getCollapsedStacks()} can be passed straight to a flame graph
+ * tool. Every slow callback is also logged once.
+ */
+public final class TickWatchdog
+{
+    /**
+     * The default time the main thread may spend inside one callback before it is sampled.
+     */
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(50L);
+    /**
+     * The default time between two checks of the main thread.
+     */
+    public static final Duration DEFAULT_SAMPLE_INTERVAL = Duration.ofMillis(10L);
+    /**
+     * The largest number of distinct stacks kept. Samples of further stacks are counted under a single stack.
+     */
+    public static final int MAX_STACKS = 2048;
+    /**
+     * The largest number of frames kept from a sampled stack, counted from the root.
+     */
+    public static final int MAX_DEPTH = 128;
+
+    private static final String OVERFLOW_STACK = "[other stacks]";
+
+    // The mark on the main thread. Written by the main thread only.
+    private static volatile Thread markedThread;
+    private static volatile TickProfile marked;
+    private static volatile long markedAt;
+    private static volatile long markSequence;
+
+    private final FreedomLogger logger = FreedomLogger.getLogger("Patchwork");
+    private final Map<String, Long> stacks = new HashMap<>();
+    private final long thresholdNanos;
+    private final long intervalMillis;
+    private Thread thread;
+    private long reportedSequence = -1L;
+
+    /**
+     * Creates a watchdog with the {@link #DEFAULT_THRESHOLD} and {@link #DEFAULT_SAMPLE_INTERVAL}.
+     */
+    public TickWatchdog()
+    {
+        this(DEFAULT_THRESHOLD, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Creates a watchdog. The watchdog does not run until {@link #start()} is called.
+     *
+     * @param threshold      The time the main thread may spend inside one callback before it is sampled.
+     * @param sampleInterval The time between two checks of the main thread.
+     */
+    public TickWatchdog(final Duration threshold, final Duration sampleInterval)
+    {
+        this.thresholdNanos = threshold.toNanos();
+        this.intervalMillis = Math.max(1L, sampleInterval.toMillis());
+    }
+
+    /**
+     * Marks the current thread as running the callback of the given profile. The mark is only recorded on the thread
+     * the watchdog was started from, which is the main server thread.
+     *
+     * @param profile The profile of the service, task or command which is about to run.
+     * @return The previous mark, which must be passed to {@link #exit(TickProfile)}.
+     */
+    public static TickProfile enter(final TickProfile profile)
+    {
+        if (Thread.currentThread() != markedThread)
+        {
+            return null;
+        }
+
+        final TickProfile previous = marked;
+        mark(profile);
+        return previous;
+    }
+
+    /**
+     * Clears the mark set by {@link #enter(TickProfile)}, and restores the mark of the enclosing callback, if any.
+     *
+     * @param previous The value returned by {@link #enter(TickProfile)}.
+     */
+    public static void exit(final TickProfile previous)
+    {
+        if (Thread.currentThread() == markedThread)
+        {
+            mark(previous);
+        }
+    }
+
+    private static void mark(final TickProfile profile)
+    {
+        markedAt = System.nanoTime();
+        marked = profile;
+        markSequence++;
+    }
+
+    /**
+     * Starts sampling the thread this method is called from. This should be called from the main server thread.
+     */
+    public synchronized void start()
+    {
+        if (thread != null)
+        {
+            return;
+        }
+
+        final Thread watched = Thread.currentThread();
+        markedThread = watched;
+        thread = new Thread(() -> watch(watched), "patchwork-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops sampling. Recorded stacks are kept.
+     */
+    public synchronized void stop()
+    {
+        if (thread != null)
+        {
+            thread.interrupt();
+            thread = null;
+        }
+
+        markedThread = null;
+        marked = null;
+    }
+
+    /**
+     * @return Every recorded stack in the collapsed format, one line per stack, followed by a space and the number of
+     *         samples.
+     */
+    public List<String> getCollapsedStacks()
+    {
+        final List<String> lines;
+        synchronized (stacks)
+        {
+            lines = new ArrayList<>(stacks.size());
+            stacks.forEach((stack, count) -> lines.add(stack + " " + count));
+        }
+
+        lines.sort(null);
+        return lines;
+    }
+
+    /**
+     * Clears every recorded stack.
+     */
+    public void reset()
+    {
+        synchronized (stacks)
+        {
+            stacks.clear();
+        }
+    }
+
+    /**
+     * @return The time the main thread may spend inside one callback before it is sampled.
+     */
+    public Duration getThreshold()
+    {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    /**
+     * @return The time between two checks of the main thread.
+     */
+    public Duration getSampleInterval()
+    {
+        return Duration.ofMillis(intervalMillis);
+    }
+
+    private void watch(final Thread watched)
+    {
+        while (!Thread.currentThread()
+                      .isInterrupted())
+        {
+            try
+            {
+                Thread.sleep(intervalMillis);
+            }
+            catch (InterruptedException ex)
+            {
+                return;
+            }
+
+            check(watched);
+        }
+    }
+
+    private void check(final Thread watched)
+    {
+        final long sequence = markSequence;
+        final TickProfile profile = marked;
+        final long elapsed = System.nanoTime() - markedAt;
+
+        if (profile == null || elapsed < thresholdNanos)
+        {
+            return;
+        }
+
+        final StackTraceElement[] trace = watched.getStackTrace();
+
+        // The callback may have returned while the stack was taken, in which case the stack belongs to something else.
+        if (sequence != markSequence)
+        {
+            return;
+        }
+
+        record(profile, trace);
+
+        if (sequence != reportedSequence)
+        {
+            reportedSequence = sequence;
+            logger.warn("The main thread has been inside " + profile.getKind() + " " + profile.getName() + " for "
+                                + elapsed / 1_000_000L + " ms; sampling its stack.");
+        }
+    }
+
+    private void record(final TickProfile profile, final StackTraceElement[] trace)
+    {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(profile.getKind())
+               .append(':')
+               .append(profile.getName());
+
+        final int depth = Math.min(trace.length, MAX_DEPTH);
+        for (int i = trace.length - 1; i >= trace.length - depth; i--)
+        {
+            builder.append(';')
+                   .append(trace[i].getClassName())
+                   .append('.')
+                   .append(trace[i].getMethodName());
+        }
+
+        final String stack = builder.toString();
+        synchronized (stacks)
+        {
+            final String key = stacks.containsKey(stack) || stacks.size() < MAX_STACKS
+                    ? stack
+                    : OVERFLOW_STACK;
+            stacks.merge(key, 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package fns.patchwork.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides thread-per-task executors backed by virtual threads when the running JVM supports them.
+ * <br>
+ * Patchwork is compiled against Java 17, where virtual threads do not exist, so the factory method is looked up at
+ * runtime. On older runtimes, a pool of at most {@link #FALLBACK_THREADS} daemon platform threads is used instead.
+ * Platform threads are far too expensive to start one per task, so tasks beyond that limit wait in the pool's queue
+ * until a thread is free, rather than each starting a new thread.
+ */
+public final class VirtualThreads
+{
+    /**
+     * The largest number of platform threads in an executor when virtual threads are not supported.
+     */
+    public static final int FALLBACK_THREADS = Math.max(16, Runtime.getRuntime()
+                                                                   .availableProcessors() * 4);
+
+    private static final MethodHandle NEW_EXECUTOR = findFactory();
+
+    private VirtualThreads()
+    {
+        throw new AssertionError();
+    }
+
+    /**
+     * @return True if the running JVM supports virtual threads.
+     */
+    public static boolean isSupported()
+    {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Creates a new executor which starts a new virtual thread for each task if virtual threads are supported.
+     * Otherwise, the executor runs tasks on at most {@link #FALLBACK_THREADS} daemon platform threads, and queues the
+     * rest. Idle platform threads are stopped after a minute.
+     *
+     * @param name The name prefix for the fallback platform threads.
+     * @return A new executor service.
+     */
+    public static ExecutorService newExecutor(final String name)
+    {
+        if (NEW_EXECUTOR != null)
+        {
+            try
+            {
+                return (ExecutorService) NEW_EXECUTOR.invokeExact();
+            }
+            catch (Throwable ignored)
+            {
+                // Fall through to the platform thread pool.
+            }
+        }
+
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(FALLBACK_THREADS, FALLBACK_THREADS, 60L, TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue<>(), daemonFactory(name));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory daemonFactory(final String name)
+    {
+        final AtomicInteger count = new AtomicInteger(0);
+        return r ->
+        {
+            final Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static MethodHandle findFactory()
+    {
+        try
+        {
+            return MethodHandles.publicLookup()
+                                .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                                            MethodType.methodType(ExecutorService.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException ex)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package fns.patchwork.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import fns.patchwork.command.annotation.Info;
+import fns.patchwork.command.annotation.Permissive;
+import fns.patchwork.command.annotation.Subcommand;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Times running a command method through a compiled {@link CommandInvoker} against the {@link Method#invoke} call it
+ * replaced, which copied the sender and the parsed arguments into a new array on every execution.
+ * <br>
+ * This is not a substitute for a proper benchmark harness, so the assertion is deliberately loose: the invoker must not
+ * be noticeably slower than reflection.
+ */
+@Timeout(value = 60L, unit = TimeUnit.SECONDS)
+class CommandInvokerBenchmarkTest
+{
+    private static final int ROUNDS = 10;
+    private static final int INVOCATIONS = 200_000;
+    /**
+     * How much slower the invoker may be than reflection, to absorb timer noise.
+     */
+    private static final double TOLERANCE = 1.25;
+    private static final Class<?>[] ARGS = {String.class, Integer.class};
+
+    @Test
+    void invokerIsNotSlowerThanReflection() throws Throwable
+    {
+        final Method method = BenchmarkCommand.class.getDeclaredMethod("give", CommandSender.class, String.class,
+                                                                       int.class);
+        final CommandInvoker invoker = CommandInvoker.compile(method, ARGS);
+        method.setAccessible(true);
+
+        final BenchmarkCommand command = new BenchmarkCommand();
+        final CommandSender sender = (CommandSender) Proxy.newProxyInstance(getClass().getClassLoader(),
+                                                                            new Class<?>[]{CommandSender.class},
+                                                                            (proxy, m, a) -> null);
+        final Object[] parsed = {"diamond", 3};
+
+        long compiled = Long.MAX_VALUE;
+        long reflected = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            final long start = System.nanoTime();
+            for (int i = 0; i < INVOCATIONS; i++)
+            {
+                invoker.invoke(command, sender, parsed);
+            }
+            final long middle = System.nanoTime();
+            for (int i = 0; i < INVOCATIONS; i++)
+            {
+                final Object[] objects = new Object[parsed.length + 1];
+                objects[0] = sender;
+                System.arraycopy(parsed, 0, objects, 1, parsed.length);
+                method.invoke(command, objects);
+            }
+            final long end = System.nanoTime();
+
+            compiled = Math.min(compiled, middle - start);
+            reflected = Math.min(reflected, end - middle);
+        }
+
+        System.out.printf("Compiled invoker: %d ns; Method.invoke: %d ns (per %d invocations)%n",
+                compiled, reflected, INVOCATIONS);
+
+        assertEquals(2L * ROUNDS * INVOCATIONS * 3, command.given);
+        assertTrue(compiled <= reflected * TOLERANCE,
+                "The compiled invoker took " + compiled + " ns, and Method.invoke " + reflected + " ns.");
+    }
+
+    @Info(name = "benchmark")
+    @Permissive(perm = "patchwork.benchmark")
+    static final class BenchmarkCommand extends Commander
+    {
+        private long given = 0L;
+
+        BenchmarkCommand()
+        {
+            super(null);
+        }
+
+        @Subcommand(permission = "patchwork.benchmark", args = {String.class, Integer.class})
+        void give(final CommandSender sender, final String item, final int amount)
+        {
+            given += amount;
+        }
+    }
+}
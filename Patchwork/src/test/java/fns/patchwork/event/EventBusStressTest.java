@@ -0,0 +1,300 @@
+package fns.patchwork.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Publishes and pings events from many threads at once while the bus is ticked on its own thread, and checks that every
+ * event is accounted for by its channel's {@link OverflowPolicy}.
+ */
+@Timeout(value = 60L, unit = TimeUnit.SECONDS)
+class EventBusStressTest
+{
+    private static final int PUBLISHERS = 8;
+    private static final int EVENTS_PER_PUBLISHER = 20_000;
+    private static final int TOTAL = PUBLISHERS * EVENTS_PER_PUBLISHER;
+    /**
+     * Small enough that the buffers overflow many times during a run.
+     */
+    private static final int CAPACITY = 64;
+    private static final Duration UNLIMITED = Duration.ofMinutes(1L);
+
+    private EventBus bus;
+
+    @BeforeEach
+    void setUp()
+    {
+        bus = new EventBus(Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        bus.shutdown();
+    }
+
+    @Test
+    void spillDeliversEveryPublishedEventExactlyOnce() throws InterruptedException
+    {
+        final AtomicIntegerArray seen = new AtomicIntegerArray(TOTAL);
+        bus.subscription(SpillEvent.class)
+           .budget(UNLIMITED)
+           .callback(e -> seen.incrementAndGet(e.index))
+           .subscribe();
+
+        publishConcurrently(i -> bus.publish(new SpillEvent(i)));
+
+        assertDeliveredExactlyOnce(seen);
+        final ChannelStatistics statistics = bus.getStatistics(SpillEvent.class);
+        assertEquals(TOTAL, statistics.published());
+        assertEquals(TOTAL, statistics.delivered());
+        assertEquals(0L, statistics.dropped());
+        assertEquals(0, statistics.buffered());
+    }
+
+    @Test
+    void blockDeliversEveryPublishedEventExactlyOnce() throws InterruptedException
+    {
+        final AtomicIntegerArray seen = new AtomicIntegerArray(TOTAL);
+        bus.subscription(BlockEvent.class)
+           .budget(UNLIMITED)
+           .callback(e -> seen.incrementAndGet(e.index))
+           .subscribe();
+
+        publishConcurrently(i -> bus.publish(new BlockEvent(i)));
+
+        assertDeliveredExactlyOnce(seen);
+        final ChannelStatistics statistics = bus.getStatistics(BlockEvent.class);
+        assertEquals(TOTAL, statistics.published());
+        assertEquals(TOTAL, statistics.delivered());
+        assertEquals(0L, statistics.dropped());
+        assertEquals(0L, statistics.spilled());
+        assertEquals(0, statistics.buffered());
+    }
+
+    @Test
+    void blockNeverWaitsInsideABusTick()
+    {
+        final LongAdder received = new LongAdder();
+        bus.subscription(BlockEvent.class)
+           .budget(UNLIMITED)
+           .callback(e -> received.increment())
+           .subscribe();
+
+        // An inline subscriber runs inside the tick which would drain the buffer, so the overflow is spilled instead.
+        bus.subscription(SpillEvent.class)
+           .budget(UNLIMITED)
+           .callback(e ->
+           {
+               for (int i = 0; i < CAPACITY * 2; i++)
+               {
+                   bus.publish(new BlockEvent(i));
+               }
+           })
+           .subscribe();
+        bus.publish(new SpillEvent(0));
+        bus.tick();
+
+        final ChannelStatistics statistics = bus.getStatistics(BlockEvent.class);
+        assertEquals(CAPACITY * 2, received.sum());
+        assertEquals(CAPACITY, statistics.spilled());
+        assertEquals(0L, statistics.blocked());
+    }
+
+    @Test
+    void dropOldestAccountsForEveryPing() throws InterruptedException
+    {
+        // One registered instance per publisher, like the per-user events which are pinged repeatedly.
+        final List<DropEvent> events = new ArrayList<>();
+        for (int p = 0; p < PUBLISHERS; p++)
+        {
+            final DropEvent event = new DropEvent(p);
+            bus.addEvent(event);
+            events.add(event);
+        }
+
+        final LongAdder received = new LongAdder();
+        bus.subscription(DropEvent.class)
+           .budget(UNLIMITED)
+           .callback(e -> received.increment())
+           .subscribe();
+
+        publishConcurrently(i -> events.get(i / EVENTS_PER_PUBLISHER)
+                                       .ping());
+
+        final ChannelStatistics statistics = bus.getStatistics(DropEvent.class);
+        assertEquals(TOTAL, statistics.published());
+        assertEquals(TOTAL, statistics.delivered() + statistics.dropped());
+        assertEquals(statistics.delivered(), received.sum());
+        assertEquals(0, statistics.buffered());
+        events.forEach(bus::removeEvent);
+    }
+
+    @Test
+    void dropOldestKeepsTheNewestEvents()
+    {
+        final List<Integer> received = new ArrayList<>();
+        bus.subscribe(DropEvent.class, e -> received.add(e.index));
+
+        for (int i = 0; i < CAPACITY * 2; i++)
+        {
+            bus.publish(new DropEvent(i));
+        }
+        bus.tick();
+
+        final ChannelStatistics statistics = bus.getStatistics(DropEvent.class);
+        final int oldest = received.get(0);
+        final int newest = received.get(received.size() - 1);
+        assertEquals(CAPACITY, received.size());
+        assertEquals(CAPACITY, oldest);
+        assertEquals(CAPACITY * 2 - 1, newest);
+        assertEquals(CAPACITY, statistics.dropped());
+    }
+
+    /**
+     * Runs every publisher on its own thread, all starting at once, while another thread ticks the bus. Once every
+     * publisher has finished, the bus is ticked a final time to deliver whatever was published after the last tick.
+     *
+     * @param publish Publishes the event with the given index, from 0 to {@link #TOTAL}.
+     */
+    private void publishConcurrently(final IntConsumer publish) throws InterruptedException
+    {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean publishing = new AtomicBoolean(true);
+        final Thread ticker = new Thread(() ->
+        {
+            while (publishing.get())
+            {
+                bus.tick();
+            }
+        }, "stress-bus");
+        ticker.start();
+
+        final List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < PUBLISHERS; p++)
+        {
+            final int first = p * EVENTS_PER_PUBLISHER;
+            final Thread publisher = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread()
+                          .interrupt();
+                    return;
+                }
+
+                for (int i = first; i < first + EVENTS_PER_PUBLISHER; i++)
+                {
+                    publish.accept(i);
+                }
+            }, "stress-publisher-" + p);
+            publisher.start();
+            publishers.add(publisher);
+        }
+
+        start.countDown();
+        for (final Thread publisher : publishers)
+        {
+            publisher.join();
+        }
+
+        publishing.set(false);
+        ticker.join();
+        bus.tick();
+    }
+
+    private static void assertDeliveredExactlyOnce(final AtomicIntegerArray seen)
+    {
+        for (int i = 0; i < seen.length(); i++)
+        {
+            assertEquals(1, seen.get(i), "Event " + i + " was not delivered exactly once.");
+        }
+    }
+
+    private abstract static class IndexedEvent extends FEvent
+    {
+        final int index;
+
+        private IndexedEvent(final int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        protected int getBufferCapacity()
+        {
+            return CAPACITY;
+        }
+    }
+
+    private static final class SpillEvent extends IndexedEvent
+    {
+        private SpillEvent(final int index)
+        {
+            super(index);
+        }
+
+        @Override
+        protected OverflowPolicy getOverflowPolicy()
+        {
+            return OverflowPolicy.SPILL;
+        }
+
+        @Override
+        public Class<? extends FEvent> getEventClass()
+        {
+            return SpillEvent.class;
+        }
+    }
+
+    private static final class BlockEvent extends IndexedEvent
+    {
+        private BlockEvent(final int index)
+        {
+            super(index);
+        }
+
+        @Override
+        protected OverflowPolicy getOverflowPolicy()
+        {
+            return OverflowPolicy.BLOCK;
+        }
+
+        @Override
+        public Class<? extends FEvent> getEventClass()
+        {
+            return BlockEvent.class;
+        }
+    }
+
+    private static final class DropEvent extends IndexedEvent
+    {
+        private DropEvent(final int index)
+        {
+            super(index);
+        }
+
+        @Override
+        public Class<? extends FEvent> getEventClass()
+        {
+            return DropEvent.class;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package fns.patchwork.event;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import fns.patchwork.data.EventRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Times looking events up by class in the {@link EventBus} and the {@link EventRegistry} with few and with many
+ * registered event classes, against the linear scan over every registered event which both used to do.
+ * <br>
+ * This is not a substitute for a proper benchmark harness, so the assertions are deliberately loose: an indexed lookup
+ * must stay roughly as cheap with 500 event classes as with 5, and must beat the linear scan once there are 500.
+ */
+@Timeout(value = 60L, unit = TimeUnit.SECONDS)
+class EventLookupBenchmarkTest
+{
+    private static final int FEW = 5;
+    private static final int MANY = 500;
+    private static final int ROUNDS = 10;
+    private static final int LOOKUPS = 20_000;
+    /**
+     * How much slower a lookup among {@link #MANY} classes may be than one among {@link #FEW}, to absorb timer noise.
+     */
+    private static final double TOLERANCE = 5.0;
+
+    private final List<EventBus> buses = new ArrayList<>();
+    private long sink = 0L;
+
+    @AfterEach
+    void tearDown()
+    {
+        buses.forEach(EventBus::shutdown);
+    }
+
+    @Test
+    void busLookupDoesNotGrowWithTheNumberOfEventClasses() throws Throwable
+    {
+        final List<FEvent> few = defineEvents(FEW);
+        final List<FEvent> many = defineEvents(MANY);
+
+        final long indexedFew = time(few, bus(few)::getEvent);
+        final long indexedMany = time(many, bus(many)::getEvent);
+        final long scannedMany = time(many, eventClass -> scanByEventClass(many, eventClass));
+
+        assertIndexed(indexedFew, indexedMany, scannedMany);
+    }
+
+    @Test
+    void registryLookupDoesNotGrowWithTheNumberOfEventClasses() throws Throwable
+    {
+        final List<FEvent> few = defineEvents(FEW);
+        final List<FEvent> many = defineEvents(MANY);
+
+        final long indexedFew = time(few, registry(few)::getEvent);
+        final long indexedMany = time(many, registry(many)::getEvent);
+        final long scannedMany = time(many, eventClass -> scanByInstance(many, eventClass));
+
+        assertIndexed(indexedFew, indexedMany, scannedMany);
+    }
+
+    private void assertIndexed(final long indexedFew, final long indexedMany, final long scannedMany)
+    {
+        System.out.printf("%d classes: %d ns indexed; %d classes: %d ns indexed, %d ns scanned (per %d lookups)%n",
+                FEW, indexedFew, MANY, indexedMany, scannedMany, LOOKUPS);
+
+        assertTrue(indexedMany <= Math.max(indexedFew, 1L) * TOLERANCE,
+                "An indexed lookup among " + MANY + " classes took " + indexedMany + " ns, against " + indexedFew
+                        + " ns among " + FEW + ".");
+        assertTrue(indexedMany < scannedMany,
+                "An indexed lookup took " + indexedMany + " ns, and the linear scan " + scannedMany + " ns.");
+        assertTrue(sink > 0L);
+    }
+
+    /**
+     * Looks up the last registered event class {@link #LOOKUPS} times per round, which is the worst case for a linear
+     * scan, and returns the fastest round so that warm-up and stray pauses do not count.
+     */
+    private long time(final List<FEvent> events, final Function<Class<? extends FEvent>, Object> lookup)
+    {
+        final Class<? extends FEvent> last = events.get(events.size() - 1)
+                                                   .getEventClass();
+        assertNotNull(lookup.apply(last));
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            final long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++)
+            {
+                if (lookup.apply(last) != null)
+                {
+                    sink++;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private EventBus bus(final List<FEvent> events)
+    {
+        final EventBus bus = new EventBus(Runnable::run);
+        events.forEach(bus::addEvent);
+        buses.add(bus);
+        return bus;
+    }
+
+    private static EventRegistry registry(final List<FEvent> events)
+    {
+        final EventRegistry registry = new EventRegistry();
+        events.forEach(registry::register);
+        return registry;
+    }
+
+    /**
+     * The lookup the bus used to make, filtering every registered event by its event class.
+     */
+    private static FEvent scanByEventClass(final List<FEvent> events, final Class<? extends FEvent> eventClass)
+    {
+        return events.stream()
+                     .filter(event -> event.getEventClass()
+                                           .equals(eventClass))
+                     .findFirst()
+                     .orElse(null);
+    }
+
+    /**
+     * The lookup the registry used to make, checking every registered event against the class.
+     */
+    private static FEvent scanByInstance(final List<FEvent> events, final Class<? extends FEvent> eventClass)
+    {
+        for (final FEvent event : events)
+        {
+            if (eventClass.isInstance(event))
+            {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Defines a distinct hidden class for each event, from the bytes of {@link LookupEvent}, so that every event has
+     * its own event class like the events of separate plugins would.
+     */
+    private static List<FEvent> defineEvents(final int count) throws Throwable
+    {
+        final byte[] bytes;
+        final String resource = "/" + LookupEvent.class.getName()
+                                                       .replace('.', '/') + ".class";
+        try (final InputStream in = LookupEvent.class.getResourceAsStream(resource))
+        {
+            if (in == null)
+            {
+                throw new IOException("The bytes of " + LookupEvent.class.getName() + " could not be found.");
+            }
+            bytes = in.readAllBytes();
+        }
+
+        final List<FEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            final MethodHandles.Lookup hidden = MethodHandles.lookup()
+                                                             .defineHiddenClass(bytes, true);
+            events.add((FEvent) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class))
+                                      .invoke());
+        }
+        return events;
+    }
+
+    static final class LookupEvent extends FEvent
+    {
+        LookupEvent()
+        {
+        }
+
+        @Override
+        public Class<? extends FEvent> getEventClass()
+        {
+            return getClass();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package fns.patchwork.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import fns.patchwork.event.EventBus;
+import fns.patchwork.event.FEvent;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives the {@link TickLoop}, services, tasks and the {@link EventBus} on a {@link SimulatedTickScheduler}, without a
+ * server or a live plugin.
+ */
+class SimulatedTickSchedulerTest
+{
+    private final AtomicBoolean ownerAlive = new AtomicBoolean(true);
+    private SimulatedTickScheduler scheduler;
+    private TickLoop loop;
+
+    @BeforeEach
+    void setUp()
+    {
+        scheduler = new SimulatedTickScheduler();
+        TickSchedulers.set(scheduler);
+        loop = new TickLoop(null, new LoadGovernor(), owner -> ownerAlive.get());
+        loop.start();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        loop.stop();
+        TickSchedulers.reset();
+    }
+
+    @Test
+    void syncServiceTicksEveryTick()
+    {
+        final CountingService service = new CountingService(TickPriority.NORMAL);
+        subscribe(service, 1L).start();
+
+        scheduler.runTicks(100L);
+
+        assertEquals(100, service.ticks.get());
+    }
+
+    @Test
+    void intervalServiceTicksOncePerInterval()
+    {
+        final CountingService service = new CountingService(TickPriority.NORMAL);
+        subscribe(service, 5L).start();
+
+        scheduler.runTicks(100L);
+
+        assertEquals(20, service.ticks.get());
+    }
+
+    @Test
+    void stoppedServiceIsNoLongerTicked()
+    {
+        final CountingService service = new CountingService(TickPriority.NORMAL);
+        final ServiceSubscription<CountingService> subscription = subscribe(service, 1L);
+        subscription.start();
+        scheduler.runTicks(10L);
+
+        subscription.stop();
+        scheduler.runTicks(10L);
+
+        assertEquals(10, service.ticks.get());
+        assertEquals(0, loop.size());
+        assertFalse(subscription.isActive());
+    }
+
+    @Test
+    void servicesOfDeadOwnerAreRemoved()
+    {
+        final CountingService service = new CountingService(TickPriority.CRITICAL);
+        subscribe(service, 1L).start();
+        scheduler.runTicks(5L);
+
+        ownerAlive.set(false);
+        scheduler.runTicks(5L);
+
+        assertEquals(5, service.ticks.get());
+        assertEquals(0, loop.size());
+    }
+
+    @Test
+    void repeatingTaskRunsOnItsIntervalAndStops()
+    {
+        final CountingTask task = new CountingTask(0L, 4L);
+        final TaskSubscription<CountingTask> subscription = new TaskSubscription<>(null, task, false, false, loop);
+        subscription.start();
+        scheduler.runTicks(40L);
+
+        subscription.stop();
+        final int runs = task.runs.get();
+        scheduler.runTicks(40L);
+
+        assertEquals(10, runs);
+        assertEquals(runs, task.runs.get());
+        assertEquals(-1, subscription.getTaskId());
+    }
+
+    @Test
+    void eventBusDeliversPingsOnTheNextTick()
+    {
+        final EventBus bus = new EventBus(Runnable::run);
+        final TestEvent event = new TestEvent();
+        final AtomicInteger delivered = new AtomicInteger();
+        bus.addEvent(event);
+        bus.subscribe(TestEvent.class, e -> delivered.incrementAndGet());
+        subscribe(bus, 1L).start();
+
+        event.ping();
+        event.ping();
+        assertEquals(0, delivered.get());
+
+        scheduler.tick();
+        assertEquals(2, delivered.get());
+        bus.shutdown();
+    }
+
+    @Test
+    void eventBusDeliversPublishedEventsOfClassWhichWasNeverAdded()
+    {
+        final EventBus bus = new EventBus(Runnable::run);
+        final AtomicInteger delivered = new AtomicInteger();
+        bus.subscribe(TestEvent.class, e -> delivered.incrementAndGet());
+        subscribe(bus, 1L).start();
+
+        bus.publish(new TestEvent());
+        scheduler.tick();
+
+        assertEquals(1, delivered.get());
+        bus.shutdown();
+    }
+
+    private <S extends Service> ServiceSubscription<S> subscribe(final S service, final long interval)
+    {
+        return new ServiceSubscription<>(null, service, interval, false, false, loop);
+    }
+
+    private static final class CountingService extends Service
+    {
+        private final AtomicInteger ticks = new AtomicInteger();
+
+        private CountingService(final TickPriority priority)
+        {
+            super("counting-service", priority);
+        }
+
+        @Override
+        public void tick()
+        {
+            ticks.incrementAndGet();
+        }
+    }
+
+    private static final class CountingTask extends Task
+    {
+        private final AtomicInteger runs = new AtomicInteger();
+
+        private CountingTask(final long delay, final long interval)
+        {
+            super("counting-task", delay, interval);
+        }
+
+        @Override
+        public void run()
+        {
+            runs.incrementAndGet();
+        }
+    }
+
+    private static final class TestEvent extends FEvent
+    {
+        @Override
+        public Class<? extends FEvent> getEventClass()
+        {
+            return TestEvent.class;
+        }
+    }
+}